@@ -0,0 +1,13 @@
+package com.example.LibraryServer.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+public class ReactiveLibraryApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.run(ReactiveLibraryApplication.class, args);
+    }
+
+}
\ No newline at end of file
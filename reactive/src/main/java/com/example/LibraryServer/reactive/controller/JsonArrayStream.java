@@ -0,0 +1,71 @@
+package com.example.LibraryServer.reactive.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Writes a Flux as one JSON array (or NDJSON) body without collecting it, a chunk of elements per
+ * buffer. Buffers are produced only as the connection asks for them, so a slow client slows the
+ * database cursor instead of growing the heap.
+ */
+final class JsonArrayStream {
+
+    private static final int ELEMENTS_PER_BUFFER = 256;
+
+    private JsonArrayStream() {
+    }
+
+    static <T> Flux<DataBuffer> array(Flux<T> elements, Class<T> type, ObjectMapper objectMapper,
+                                      DataBufferFactory bufferFactory) {
+        ObjectWriter writer = objectMapper.writerFor(type);
+        boolean[] first = {true};
+
+        return elements
+                .buffer(ELEMENTS_PER_BUFFER)
+                .map(chunk -> {
+                    ByteArrayOutputStream out = new ByteArrayOutputStream(chunk.size() * 256);
+                    for (T element : chunk) {
+                        out.write(first[0] ? '[' : ',');
+                        first[0] = false;
+                        write(writer, element, out);
+                    }
+                    return bufferFactory.wrap(out.toByteArray());
+                })
+                .concatWith(Flux.defer(() -> Flux.just(bufferFactory.wrap(
+                        (first[0] ? "[]" : "]").getBytes(StandardCharsets.US_ASCII)))));
+    }
+
+    static <T> Flux<DataBuffer> lines(Flux<T> elements, Class<T> type, ObjectMapper objectMapper,
+                                      DataBufferFactory bufferFactory) {
+        ObjectWriter writer = objectMapper.writerFor(type);
+
+        return elements
+                .buffer(ELEMENTS_PER_BUFFER)
+                .map(chunk -> bufferFactory.wrap(lines(writer, chunk)));
+    }
+
+    private static <T> byte[] lines(ObjectWriter writer, List<T> chunk) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(chunk.size() * 256);
+        for (T element : chunk) {
+            write(writer, element, out);
+            out.write('\n');
+        }
+        return out.toByteArray();
+    }
+
+    private static void write(ObjectWriter writer, Object element, ByteArrayOutputStream out) {
+        try {
+            out.writeBytes(writer.writeValueAsBytes(element));
+        } catch (JsonProcessingException e) {
+            throw Exceptions.propagate(e);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,106 @@
+package com.example.LibraryServer.reactive.controller;
+
+import com.example.LibraryServer.dto.MostSavedProductDTO;
+import com.example.LibraryServer.dto.ProductDTO;
+import com.example.LibraryServer.dto.ProductFilter;
+import com.example.LibraryServer.reactive.service.ReactiveProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Catalog reads with the servlet application's paths and JSON. Search and import stay servlet-only:
+ * search runs on that process's in-memory index, import on its JPA batch pipeline. Lists are
+ * streamed straight from the database, so there is no snapshot, response cache or ETag here.
+ */
+@RestController
+@RequestMapping("/api/products")
+@RequiredArgsConstructor
+public class ReactiveProductController {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final ReactiveProductService productService;
+    private final ObjectMapper objectMapper;
+
+    @GetMapping
+    public ResponseEntity<Flux<DataBuffer>> getAllProducts() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(JsonArrayStream.array(productService.streamAllProducts(), ProductDTO.class,
+                        objectMapper, DefaultDataBufferFactory.sharedInstance));
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<ProductDTO>> getProductById(@PathVariable Long id) {
+        return productService.getProductById(id)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/available")
+    public ResponseEntity<Flux<DataBuffer>> getAvailableProducts() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(JsonArrayStream.array(productService.streamAvailableProducts(), ProductDTO.class,
+                        objectMapper, DefaultDataBufferFactory.sharedInstance));
+    }
+
+    @GetMapping("/most-saved")
+    public Mono<ResponseEntity<List<MostSavedProductDTO>>> getMostSavedProducts(
+            @RequestParam(defaultValue = "20") int limit) {
+
+        return productService.getMostSavedProducts(limit)
+                .collectList()
+                .map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/page")
+    public Mono<ResponseEntity<?>> getProductPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) Boolean available,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(defaultValue = "id") String sort) {
+
+        ProductFilter filter;
+        try {
+            filter = ProductFilter.builder()
+                    .category(category)
+                    .available(available)
+                    .minPrice(minPrice)
+                    .maxPrice(maxPrice)
+                    .sort(ProductFilter.SortOrder.valueOf(sort.toUpperCase(Locale.ROOT)))
+                    .build();
+        } catch (IllegalArgumentException e) {
+            return Mono.just(badRequest(e));
+        }
+
+        return productService.getProductPage(filter, cursor, size)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(badRequest(e)));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<Flux<DataBuffer>> exportProducts() {
+        return ResponseEntity.ok()
+                .contentType(NDJSON)
+                .body(JsonArrayStream.lines(productService.streamAllProducts(), ProductDTO.class,
+                        objectMapper, DefaultDataBufferFactory.sharedInstance));
+    }
+
+    private static ResponseEntity<?> badRequest(RuntimeException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+}
\ No newline at end of file
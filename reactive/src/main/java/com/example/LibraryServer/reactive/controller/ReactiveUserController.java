@@ -0,0 +1,122 @@
+package com.example.LibraryServer.reactive.controller;
+
+import com.example.LibraryServer.dto.ProductDTO;
+import com.example.LibraryServer.dto.SavedProductsBatchRequest;
+import com.example.LibraryServer.dto.SavedStatusRequest;
+import com.example.LibraryServer.dto.UserDTO;
+import com.example.LibraryServer.reactive.repository.ProductRow;
+import com.example.LibraryServer.reactive.service.ReactiveUserService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The /api/users/{userId}/saved* endpoints. Saves made here update the stored counters directly; a
+ * servlet instance on the same database does not see them in its in-memory saved-products index
+ * until those entries expire.
+ */
+@RestController
+@RequestMapping("/api/users")
+@RequiredArgsConstructor
+public class ReactiveUserController {
+
+    private final ReactiveUserService userService;
+
+    @PostMapping("/{userId}/saved/{productId}")
+    public Mono<ResponseEntity<?>> toggleSavedStatus(
+            @PathVariable Long userId,
+            @PathVariable Long productId,
+            @RequestParam(defaultValue = "true") boolean saveProduct) {
+
+        Mono<UserDTO> profile = saveProduct
+                ? userService.saveProduct(userId, productId)
+                : userService.removeSavedProduct(userId, productId);
+
+        return profile
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .onErrorResume(DataIntegrityViolationException.class, e -> Mono.just(
+                        ResponseEntity.badRequest().body(Map.of("error", "User or product not found"))))
+                .onErrorResume(RuntimeException.class, e -> Mono.just(badRequest(e)));
+    }
+
+    @PostMapping("/{userId}/saved/batch")
+    public Mono<ResponseEntity<?>> applySavedProductOperations(
+            @PathVariable Long userId,
+            @Valid @RequestBody SavedProductsBatchRequest request) {
+
+        return userService.applySavedProductOperations(userId, request.getOperations())
+                .<ResponseEntity<?>>map(result -> {
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("userId", userId);
+                    response.put("added", result.addedProductIds());
+                    response.put("removed", result.removedProductIds());
+                    response.put("savedProductsCount", result.savedProductsCount());
+                    return ResponseEntity.ok(response);
+                })
+                .onErrorResume(RuntimeException.class, e -> Mono.just(badRequest(e)));
+    }
+
+    @GetMapping("/{userId}/saved")
+    public Mono<ResponseEntity<List<ProductRow>>> getSavedProducts(@PathVariable Long userId) {
+        return userService.getSavedProductRows(userId)
+                .collectList()
+                .map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/{userId}/saved/feed")
+    public Mono<ResponseEntity<?>> getSavedProductsFeed(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+
+        return userService.getSavedProductsFeed(userId, cursor, size)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(badRequest(e)));
+    }
+
+    @GetMapping("/{userId}/saved/{productId}/status")
+    public Mono<ResponseEntity<Map<String, Object>>> getSavedStatus(
+            @PathVariable Long userId,
+            @PathVariable Long productId) {
+
+        return userService.isUserSavedProduct(userId, productId)
+                .map(isSaved -> {
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("userId", userId);
+                    response.put("productId", productId);
+                    response.put("isSaved", isSaved);
+                    return ResponseEntity.ok(response);
+                });
+    }
+
+    @PostMapping("/{userId}/saved/status")
+    public Mono<ResponseEntity<Map<String, Object>>> getSavedStatuses(
+            @PathVariable Long userId,
+            @Valid @RequestBody SavedStatusRequest request) {
+
+        return userService.filterSavedProducts(userId, request.getProductIds())
+                .map(savedProductIds -> {
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("userId", userId);
+                    response.put("savedProductIds", savedProductIds);
+                    return ResponseEntity.ok(response);
+                });
+    }
+
+    @GetMapping("/{userId}/saved-products")
+    public Mono<ResponseEntity<List<ProductDTO>>> getSavedProductsForProfile(@PathVariable Long userId) {
+        return userService.getSavedProducts(userId)
+                .collectList()
+                .map(ResponseEntity::ok);
+    }
+
+    private static ResponseEntity<?> badRequest(RuntimeException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.example.LibraryServer.reactive.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Full products row, named after the servlet application's Product entity properties so endpoints that
+ * return the entity there serialize to the same JSON here.
+ */
+public record ProductRow(Long id,
+                         String name,
+                         String description,
+                         Double price,
+                         String category,
+                         String imageUrl,
+                         Boolean isAvailable,
+                         Long savedCount,
+                         LocalDateTime createdAt,
+                         LocalDateTime updatedAt) {
+}
\ No newline at end of file
@@ -0,0 +1,126 @@
+package com.example.LibraryServer.reactive.repository;
+
+import com.example.LibraryServer.dto.MostSavedProductDTO;
+import com.example.LibraryServer.dto.ProductDTO;
+import com.example.LibraryServer.dto.ProductFilter;
+import io.r2dbc.spi.Row;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Repository
+public class ReactiveProductRepository {
+
+    static final String DTO_COLUMNS = "p.id, p.name, p.description, p.price, p.category, p.image_url, p.is_available";
+
+    private final DatabaseClient databaseClient;
+    private final int fetchSize;
+
+    public ReactiveProductRepository(DatabaseClient databaseClient,
+                                     @Value("${app.products.fetch-size}") int fetchSize) {
+        this.databaseClient = databaseClient;
+        this.fetchSize = fetchSize;
+    }
+
+    // fetchSize makes the driver use a portal, so rows are read from Postgres as downstream demand arrives
+    public Flux<ProductDTO> streamAll() {
+        return databaseClient.sql("SELECT " + DTO_COLUMNS + " FROM products p ORDER BY p.id")
+                .filter(statement -> statement.fetchSize(fetchSize))
+                .map((row, metadata) -> toDTO(row))
+                .all();
+    }
+
+    public Flux<ProductDTO> streamAvailable() {
+        return databaseClient.sql("SELECT " + DTO_COLUMNS + " FROM products p WHERE p.is_available ORDER BY p.id")
+                .filter(statement -> statement.fetchSize(fetchSize))
+                .map((row, metadata) -> toDTO(row))
+                .all();
+    }
+
+    public Mono<ProductDTO> findById(long id) {
+        return databaseClient.sql("SELECT " + DTO_COLUMNS + " FROM products p WHERE p.id = :id")
+                .bind("id", id)
+                .map((row, metadata) -> toDTO(row))
+                .one();
+    }
+
+    public Flux<ProductDTO> findAllById(Collection<Long> ids) {
+        return databaseClient.sql("SELECT " + DTO_COLUMNS + " FROM products p WHERE p.id = ANY(:ids)")
+                .bind("ids", ids.toArray(Long[]::new))
+                .map((row, metadata) -> toDTO(row))
+                .all();
+    }
+
+    public Flux<MostSavedProductDTO> findMostSaved(int limit) {
+        return databaseClient.sql("SELECT " + DTO_COLUMNS + ", p.saved_count FROM products p " +
+                        "WHERE p.saved_count > 0 ORDER BY p.saved_count DESC, p.id LIMIT :limit")
+                .bind("limit", limit)
+                .map((row, metadata) -> MostSavedProductDTO.builder()
+                        .product(toDTO(row))
+                        .savedCount(row.get("saved_count", Long.class))
+                        .build())
+                .all();
+    }
+
+    // Same keyset predicates as the servlet repository, with only the filters that are set
+    public Flux<ProductDTO> findPage(ProductFilter filter, Double afterPrice, long afterId, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT " + DTO_COLUMNS + " FROM products p WHERE ");
+        Map<String, Object> bindings = new LinkedHashMap<>();
+
+        if (filter.getSort() == ProductFilter.SortOrder.PRICE) {
+            if (afterPrice != null) {
+                sql.append("(p.price, p.id) > (:afterPrice, :afterId)");
+                bindings.put("afterPrice", afterPrice);
+                bindings.put("afterId", afterId);
+            } else {
+                sql.append("TRUE");
+            }
+        } else {
+            sql.append("p.id > :afterId");
+            bindings.put("afterId", afterId);
+        }
+
+        if (filter.getCategory() != null) {
+            sql.append(" AND p.category = :category");
+            bindings.put("category", filter.getCategory());
+        }
+        if (filter.getAvailable() != null) {
+            sql.append(" AND p.is_available = :available");
+            bindings.put("available", filter.getAvailable());
+        }
+        if (filter.getMinPrice() != null) {
+            sql.append(" AND p.price >= :minPrice");
+            bindings.put("minPrice", filter.getMinPrice());
+        }
+        if (filter.getMaxPrice() != null) {
+            sql.append(" AND p.price <= :maxPrice");
+            bindings.put("maxPrice", filter.getMaxPrice());
+        }
+
+        sql.append(filter.getSort() == ProductFilter.SortOrder.PRICE ? " ORDER BY p.price, p.id" : " ORDER BY p.id");
+        sql.append(" LIMIT :limit");
+        bindings.put("limit", limit);
+
+        return databaseClient.sql(sql.toString())
+                .bindValues(bindings)
+                .map((row, metadata) -> toDTO(row))
+                .all();
+    }
+
+    static ProductDTO toDTO(Row row) {
+        return ProductDTO.builder()
+                .id(row.get("id", Long.class))
+                .name(row.get("name", String.class))
+                .description(row.get("description", String.class))
+                .price(row.get("price", Double.class))
+                .category(row.get("category", String.class))
+                .imageUrl(row.get("image_url", String.class))
+                .isAvailable(row.get("is_available", Boolean.class))
+                .build();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,200 @@
+package com.example.LibraryServer.reactive.repository;
+
+import com.example.LibraryServer.dto.ProductDTO;
+import com.example.LibraryServer.dto.UserDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+@RequiredArgsConstructor
+public class ReactiveSavedProductsRepository {
+
+    // Every CTE sees the same snapshot, so the 'C' row is the count before this statement; the 'U' row is
+    // 0 when the user does not exist, which a removals-only batch would otherwise not notice.
+    private static final String APPLY_BATCH_SQL = """
+            WITH removed AS (
+                DELETE FROM user_saved_products
+                WHERE user_id = :userId AND product_id = ANY(:toRemove)
+                RETURNING product_id
+            ), added AS (
+                INSERT INTO user_saved_products (user_id, product_id, saved_at)
+                SELECT u.id, p.id, now() FROM users u JOIN products p ON p.id = ANY(:toSave)
+                WHERE u.id = :userId
+                ON CONFLICT DO NOTHING
+                RETURNING product_id
+            ), product_counts AS (
+                UPDATE products p SET saved_count = p.saved_count + c.delta
+                FROM (SELECT product_id, 1 AS delta FROM added
+                      UNION ALL
+                      SELECT product_id, -1 FROM removed) c
+                WHERE p.id = c.product_id
+                RETURNING p.id
+            ), user_count AS (
+                UPDATE users SET saved_products_count = saved_products_count
+                    + (SELECT count(*) FROM added) - (SELECT count(*) FROM removed)
+                WHERE id = :userId
+                RETURNING id
+            )
+            SELECT 'A' AS change, product_id AS value FROM added
+            UNION ALL
+            SELECT 'R', product_id FROM removed
+            UNION ALL
+            SELECT 'C', count(*) FROM user_saved_products WHERE user_id = :userId
+            UNION ALL
+            SELECT 'U', count(*) FROM user_count
+            """;
+
+    private final DatabaseClient databaseClient;
+
+    public Flux<ProductRow> findProductRowsByUserId(long userId) {
+        return databaseClient.sql("SELECT p.* FROM user_saved_products usp " +
+                        "JOIN products p ON p.id = usp.product_id WHERE usp.user_id = :userId")
+                .bind("userId", userId)
+                .map((row, metadata) -> new ProductRow(
+                        row.get("id", Long.class),
+                        row.get("name", String.class),
+                        row.get("description", String.class),
+                        row.get("price", Double.class),
+                        row.get("category", String.class),
+                        row.get("image_url", String.class),
+                        row.get("is_available", Boolean.class),
+                        row.get("saved_count", Long.class),
+                        row.get("created_at", LocalDateTime.class),
+                        row.get("updated_at", LocalDateTime.class)))
+                .all();
+    }
+
+    public Flux<ProductDTO> findProductsByUserId(long userId) {
+        return databaseClient.sql("SELECT " + ReactiveProductRepository.DTO_COLUMNS + " FROM user_saved_products usp " +
+                        "JOIN products p ON p.id = usp.product_id WHERE usp.user_id = :userId")
+                .bind("userId", userId)
+                .map((row, metadata) -> ReactiveProductRepository.toDTO(row))
+                .all();
+    }
+
+    public Flux<Long> findProductIdsByUserId(long userId) {
+        return databaseClient.sql("SELECT product_id FROM user_saved_products WHERE user_id = :userId " +
+                        "ORDER BY saved_at, product_id")
+                .bind("userId", userId)
+                .map((row, metadata) -> row.get("product_id", Long.class))
+                .all();
+    }
+
+    public Flux<SavedEntry> findFeed(long userId, LocalDateTime afterSavedAt, long afterProductId, int limit) {
+        DatabaseClient.GenericExecuteSpec spec = afterSavedAt == null
+                ? databaseClient.sql("SELECT product_id, saved_at FROM user_saved_products WHERE user_id = :userId " +
+                        "ORDER BY saved_at DESC, product_id DESC LIMIT :limit")
+                : databaseClient.sql("SELECT product_id, saved_at FROM user_saved_products WHERE user_id = :userId " +
+                        "AND (saved_at, product_id) < (:savedAt, :productId) " +
+                        "ORDER BY saved_at DESC, product_id DESC LIMIT :limit")
+                        .bind("savedAt", afterSavedAt)
+                        .bind("productId", afterProductId);
+
+        return spec.bind("userId", userId)
+                .bind("limit", limit)
+                .map((row, metadata) -> new SavedEntry(
+                        row.get("product_id", Long.class), row.get("saved_at", LocalDateTime.class)))
+                .all();
+    }
+
+    public Mono<Boolean> isSaved(long userId, long productId) {
+        return databaseClient.sql("SELECT EXISTS (SELECT 1 FROM user_saved_products " +
+                        "WHERE user_id = :userId AND product_id = :productId) AS saved")
+                .bind("userId", userId)
+                .bind("productId", productId)
+                .map((row, metadata) -> row.get("saved", Boolean.class))
+                .one();
+    }
+
+    public Flux<Long> findSavedAmong(long userId, Collection<Long> productIds) {
+        return databaseClient.sql("SELECT product_id FROM user_saved_products " +
+                        "WHERE user_id = :userId AND product_id = ANY(:productIds)")
+                .bind("userId", userId)
+                .bind("productIds", productIds.toArray(Long[]::new))
+                .map((row, metadata) -> row.get("product_id", Long.class))
+                .all();
+    }
+
+    public Mono<Long> insertIfAbsent(long userId, long productId) {
+        return databaseClient.sql("INSERT INTO user_saved_products (user_id, product_id, saved_at) " +
+                        "VALUES (:userId, :productId, now()) ON CONFLICT DO NOTHING")
+                .bind("userId", userId)
+                .bind("productId", productId)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Mono<Long> deleteIfPresent(long userId, long productId) {
+        return databaseClient.sql("DELETE FROM user_saved_products WHERE user_id = :userId AND product_id = :productId")
+                .bind("userId", userId)
+                .bind("productId", productId)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    /**
+     * Applies a batch of saves and removals in one statement, counters included. Unknown products are
+     * skipped; an unknown user shows up as userExists() == false with nothing changed.
+     */
+    public Mono<SavedBatchResult> applyBatch(long userId, long[] productIdsToSave, long[] productIdsToRemove) {
+        return databaseClient.sql(APPLY_BATCH_SQL)
+                .bind("userId", userId)
+                .bind("toSave", Arrays.stream(productIdsToSave).boxed().toArray(Long[]::new))
+                .bind("toRemove", Arrays.stream(productIdsToRemove).boxed().toArray(Long[]::new))
+                .map((row, metadata) -> Map.entry(row.get("change", String.class), row.get("value", Long.class)))
+                .all()
+                .collectList()
+                .map(rows -> {
+                    long[] added = rows.stream().filter(row -> row.getKey().equals("A"))
+                            .mapToLong(Map.Entry::getValue).toArray();
+                    long[] removed = rows.stream().filter(row -> row.getKey().equals("R"))
+                            .mapToLong(Map.Entry::getValue).toArray();
+                    long countBefore = valueOf(rows, "C");
+                    return new SavedBatchResult(valueOf(rows, "U") > 0, added, removed,
+                            countBefore + added.length - removed.length);
+                });
+    }
+
+    private static long valueOf(List<Map.Entry<String, Long>> rows, String change) {
+        return rows.stream().filter(row -> row.getKey().equals(change))
+                .mapToLong(Map.Entry::getValue).findFirst().orElse(0);
+    }
+
+    // The servlet application batches these through its write-behind counters; here they are applied in
+    // the same transaction as the save
+    public Mono<Void> adjustCounts(long userId, long productId, int delta) {
+        Mono<Long> product = databaseClient.sql("UPDATE products SET saved_count = saved_count + :delta WHERE id = :id")
+                .bind("delta", delta)
+                .bind("id", productId)
+                .fetch()
+                .rowsUpdated();
+        Mono<Long> user = databaseClient.sql(
+                        "UPDATE users SET saved_products_count = saved_products_count + :delta WHERE id = :id")
+                .bind("delta", delta)
+                .bind("id", userId)
+                .fetch()
+                .rowsUpdated();
+        return product.then(user).then();
+    }
+
+    public Mono<UserDTO> findUser(long userId) {
+        return databaseClient.sql("SELECT id, username, name, email, phone FROM users WHERE id = :userId")
+                .bind("userId", userId)
+                .map((row, metadata) -> UserDTO.builder()
+                        .id(row.get("id", Long.class))
+                        .username(row.get("username", String.class))
+                        .name(row.get("name", String.class))
+                        .email(row.get("email", String.class))
+                        .phone(row.get("phone", String.class))
+                        .build())
+                .one();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,5 @@
+package com.example.LibraryServer.reactive.repository;
+
+public record SavedBatchResult(boolean userExists, long[] addedProductIds, long[] removedProductIds,
+                               long savedProductsCount) {
+}
\ No newline at end of file
@@ -0,0 +1,6 @@
+package com.example.LibraryServer.reactive.repository;
+
+import java.time.LocalDateTime;
+
+public record SavedEntry(long productId, LocalDateTime savedAt) {
+}
\ No newline at end of file
@@ -0,0 +1,74 @@
+package com.example.LibraryServer.reactive.service;
+
+import com.example.LibraryServer.cursor.ProductCursor;
+import com.example.LibraryServer.dto.MostSavedProductDTO;
+import com.example.LibraryServer.dto.ProductDTO;
+import com.example.LibraryServer.dto.ProductFilter;
+import com.example.LibraryServer.dto.ProductPageDTO;
+import com.example.LibraryServer.reactive.repository.ReactiveProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class ReactiveProductService {
+
+    public static final int MAX_PAGE_SIZE = 200;
+    public static final int MAX_MOST_SAVED = 100;
+
+    private final ReactiveProductRepository productRepository;
+
+    public Flux<ProductDTO> streamAllProducts() {
+        return productRepository.streamAll();
+    }
+
+    public Flux<ProductDTO> streamAvailableProducts() {
+        return productRepository.streamAvailable();
+    }
+
+    public Mono<ProductDTO> getProductById(long id) {
+        return productRepository.findById(id);
+    }
+
+    public Flux<MostSavedProductDTO> getMostSavedProducts(int limit) {
+        return productRepository.findMostSaved(Math.max(0, Math.min(limit, MAX_MOST_SAVED)));
+    }
+
+    public Mono<ProductPageDTO> getProductPage(ProductFilter filter, String cursor, int size) {
+        if (filter.getMinPrice() != null && filter.getMaxPrice() != null
+                && filter.getMinPrice() > filter.getMaxPrice()) {
+            return Mono.error(new IllegalArgumentException("minPrice must not be greater than maxPrice"));
+        }
+
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        ProductCursor after;
+        try {
+            after = ProductCursor.decode(cursor, filter.getSort());
+        } catch (IllegalArgumentException e) {
+            return Mono.error(e);
+        }
+
+        return productRepository.findPage(filter, after.getPrice(), after.getId(), pageSize + 1)
+                .collectList()
+                .map(products -> {
+                    if (products.size() <= pageSize) {
+                        return page(products, null);
+                    }
+
+                    List<ProductDTO> page = products.subList(0, pageSize);
+                    ProductDTO last = page.get(pageSize - 1);
+                    return page(page, new ProductCursor(last.getPrice(), last.getId()).encode(filter.getSort()));
+                });
+    }
+
+    private static ProductPageDTO page(List<ProductDTO> items, String nextCursor) {
+        return ProductPageDTO.builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .hasMore(nextCursor != null)
+                .build();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,155 @@
+package com.example.LibraryServer.reactive.service;
+
+import com.example.LibraryServer.cursor.SavedProductsCursor;
+import com.example.LibraryServer.dto.ProductDTO;
+import com.example.LibraryServer.dto.SavedProductDTO;
+import com.example.LibraryServer.dto.SavedProductOperation;
+import com.example.LibraryServer.dto.SavedProductsFeedDTO;
+import com.example.LibraryServer.dto.UserDTO;
+import com.example.LibraryServer.reactive.repository.ProductRow;
+import com.example.LibraryServer.reactive.repository.ReactiveProductRepository;
+import com.example.LibraryServer.reactive.repository.ReactiveSavedProductsRepository;
+import com.example.LibraryServer.reactive.repository.SavedBatchResult;
+import com.example.LibraryServer.reactive.repository.SavedEntry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class ReactiveUserService {
+
+    public static final int MAX_FEED_PAGE_SIZE = 100;
+
+    private final ReactiveSavedProductsRepository savedProductsRepository;
+    private final ReactiveProductRepository productRepository;
+
+    public Flux<ProductRow> getSavedProductRows(long userId) {
+        return savedProductsRepository.findProductRowsByUserId(userId);
+    }
+
+    public Flux<ProductDTO> getSavedProducts(long userId) {
+        return savedProductsRepository.findProductsByUserId(userId);
+    }
+
+    public Mono<Boolean> isUserSavedProduct(long userId, long productId) {
+        return savedProductsRepository.isSaved(userId, productId);
+    }
+
+    // input order, duplicates dropped, like the servlet index lookup
+    public Mono<List<Long>> filterSavedProducts(long userId, List<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return Mono.just(List.of());
+        }
+
+        return savedProductsRepository.findSavedAmong(userId, productIds)
+                .collect(Collectors.toCollection(HashSet::new))
+                .map(saved -> productIds.stream()
+                        .distinct()
+                        .filter(saved::contains)
+                        .toList());
+    }
+
+    public Mono<SavedProductsFeedDTO> getSavedProductsFeed(long userId, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_FEED_PAGE_SIZE));
+        SavedProductsCursor after;
+        try {
+            after = SavedProductsCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return Mono.error(e);
+        }
+
+        return savedProductsRepository.findFeed(userId,
+                        after == null ? null : after.getSavedAt(),
+                        after == null ? 0L : after.getProductId(),
+                        pageSize + 1)
+                .collectList()
+                .flatMap(entries -> {
+                    boolean hasMore = entries.size() > pageSize;
+                    List<SavedEntry> page = hasMore ? entries.subList(0, pageSize) : entries;
+                    String nextCursor = hasMore ? cursorAfter(page.get(pageSize - 1)) : null;
+
+                    return productRepository.findAllById(page.stream().map(SavedEntry::productId).toList())
+                            .collectMap(ProductDTO::getId, Function.identity())
+                            .map(products -> feed(page, products, nextCursor));
+                });
+    }
+
+    @Transactional
+    public Mono<UserDTO> saveProduct(long userId, long productId) {
+        return savedProductsRepository.insertIfAbsent(userId, productId)
+                .flatMap(inserted -> inserted > 0
+                        ? savedProductsRepository.adjustCounts(userId, productId, 1)
+                        : Mono.empty())
+                .then(loadProfile(userId));
+    }
+
+    @Transactional
+    public Mono<UserDTO> removeSavedProduct(long userId, long productId) {
+        return savedProductsRepository.deleteIfPresent(userId, productId)
+                .flatMap(deleted -> deleted == 0
+                        ? Mono.error(new RuntimeException("User does not have this product saved"))
+                        : savedProductsRepository.adjustCounts(userId, productId, -1))
+                .then(loadProfile(userId));
+    }
+
+    // the last operation for a product wins, as in the servlet application
+    @Transactional
+    public Mono<SavedBatchResult> applySavedProductOperations(long userId, List<SavedProductOperation> operations) {
+        Map<Long, Boolean> finalState = new LinkedHashMap<>();
+        operations.forEach(operation -> finalState.put(operation.getProductId(), operation.getSaved()));
+
+        long[] toSave = finalState.entrySet().stream()
+                .filter(Map.Entry::getValue)
+                .mapToLong(Map.Entry::getKey)
+                .toArray();
+        long[] toRemove = finalState.entrySet().stream()
+                .filter(entry -> !entry.getValue())
+                .mapToLong(Map.Entry::getKey)
+                .toArray();
+
+        return savedProductsRepository.applyBatch(userId, toSave, toRemove)
+                .flatMap(result -> result.userExists()
+                        ? Mono.just(result)
+                        : Mono.error(new RuntimeException("User not found")));
+    }
+
+    // the count comes from the ids rather than users.saved_products_count, which the servlet application
+    // updates behind its writes
+    private Mono<UserDTO> loadProfile(long userId) {
+        return savedProductsRepository.findUser(userId)
+                .switchIfEmpty(Mono.error(() -> new RuntimeException("User not found")))
+                .zipWith(savedProductsRepository.findProductIdsByUserId(userId).collectList(), (user, productIds) -> {
+                    user.setSavedProducts(productIds.stream().mapToLong(Long::longValue).toArray());
+                    user.setSavedProductsCount(productIds.size());
+                    return user;
+                });
+    }
+
+    private static String cursorAfter(SavedEntry entry) {
+        return new SavedProductsCursor(entry.savedAt(), entry.productId()).encode();
+    }
+
+    private static SavedProductsFeedDTO feed(List<SavedEntry> entries, Map<Long, ProductDTO> products,
+                                             String nextCursor) {
+        return SavedProductsFeedDTO.builder()
+                .items(entries.stream()
+                        .filter(entry -> products.containsKey(entry.productId()))
+                        .map(entry -> SavedProductDTO.builder()
+                                .product(products.get(entry.productId()))
+                                .savedAt(entry.savedAt())
+                                .build())
+                        .toList())
+                .nextCursor(nextCursor)
+                .hasMore(nextCursor != null)
+                .build();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,51 @@
+package com.example.LibraryServer.cursor;
+
+import com.example.LibraryServer.dto.ProductFilter;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Keyset position in the product listing, encoded the same way by the servlet and reactive stacks so a
+ * page started on one continues on the other.
+ */
+@Getter
+@AllArgsConstructor
+public class ProductCursor {
+
+    private static final ProductCursor START = new ProductCursor(null, 0L);
+
+    private final Double price;
+    private final long id;
+
+    public static ProductCursor decode(String cursor, ProductFilter.SortOrder sort) {
+        if (cursor == null || cursor.isBlank()) {
+            return START;
+        }
+
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":");
+
+            if (sort == ProductFilter.SortOrder.PRICE && parts.length == 3 && parts[0].equals("p")) {
+                return new ProductCursor(Double.valueOf(parts[1]), Long.parseLong(parts[2]));
+            }
+            if (sort == ProductFilter.SortOrder.ID && parts.length == 2 && parts[0].equals("i")) {
+                return new ProductCursor(null, Long.parseLong(parts[1]));
+            }
+        } catch (IllegalArgumentException e) {
+            // fall through to the error below
+        }
+
+        throw new IllegalArgumentException("Invalid cursor");
+    }
+
+    public String encode(ProductFilter.SortOrder sort) {
+        String raw = sort == ProductFilter.SortOrder.PRICE
+                ? "p:" + price + ":" + id
+                : "i:" + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
\ No newline at end of file
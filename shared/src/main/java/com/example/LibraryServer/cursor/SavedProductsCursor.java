@@ -0,0 +1,40 @@
+package com.example.LibraryServer.cursor;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/** Keyset position in a user's saved-products feed, newest first. */
+@Getter
+@AllArgsConstructor
+public class SavedProductsCursor {
+
+    private final LocalDateTime savedAt;
+    private final long productId;
+
+    public static SavedProductsCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length == 3 && parts[0].equals("s")) {
+                return new SavedProductsCursor(LocalDateTime.parse(parts[1]), Long.parseLong(parts[2]));
+            }
+        } catch (RuntimeException e) {
+            // fall through to the error below
+        }
+
+        throw new IllegalArgumentException("Invalid cursor");
+    }
+
+    public String encode() {
+        String raw = "s|" + savedAt + "|" + productId;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
\ No newline at end of file
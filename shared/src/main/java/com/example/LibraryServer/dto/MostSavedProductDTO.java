@@ -0,0 +1,18 @@
+package com.example.LibraryServer.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MostSavedProductDTO {
+    private ProductDTO product;
+
+    @JsonProperty("saved_count")
+    private long savedCount;
+}
\ No newline at end of file
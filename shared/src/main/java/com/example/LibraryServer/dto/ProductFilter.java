@@ -0,0 +1,26 @@
+package com.example.LibraryServer.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFilter {
+
+    public enum SortOrder {
+        ID,
+        PRICE
+    }
+
+    private String category;
+    private Boolean available;
+    private Double minPrice;
+    private Double maxPrice;
+
+    @Builder.Default
+    private SortOrder sort = SortOrder.ID;
+}
\ No newline at end of file
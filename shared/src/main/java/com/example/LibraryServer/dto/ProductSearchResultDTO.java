@@ -0,0 +1,20 @@
+package com.example.LibraryServer.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSearchResultDTO {
+    private String query;
+    private int page;
+    private int size;
+    private long total;
+    private String source;
+    private List<ProductDTO> items;
+}
\ No newline at end of file
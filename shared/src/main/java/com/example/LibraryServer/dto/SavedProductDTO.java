@@ -0,0 +1,19 @@
+package com.example.LibraryServer.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SavedProductDTO {
+    private ProductDTO product;
+
+    @JsonProperty("saved_at")
+    private LocalDateTime savedAt;
+}
\ No newline at end of file
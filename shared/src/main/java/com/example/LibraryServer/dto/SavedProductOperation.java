@@ -0,0 +1,18 @@
+package com.example.LibraryServer.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SavedProductOperation {
+
+    @NotNull(message = "productId is required")
+    private Long productId;
+
+    @NotNull(message = "saved is required")
+    private Boolean saved;
+}
\ No newline at end of file
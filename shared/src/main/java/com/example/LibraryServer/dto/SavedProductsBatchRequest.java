@@ -0,0 +1,15 @@
+package com.example.LibraryServer.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class SavedProductsBatchRequest {
+
+    @NotEmpty(message = "operations is required")
+    @Size(max = 1000, message = "At most 1000 operations per request")
+    private List<@Valid SavedProductOperation> operations;
+}
\ No newline at end of file
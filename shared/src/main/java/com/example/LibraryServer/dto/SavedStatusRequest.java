@@ -0,0 +1,15 @@
+package com.example.LibraryServer.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class SavedStatusRequest {
+
+    @NotEmpty(message = "productIds is required")
+    @Size(max = 1000, message = "At most 1000 product ids per request")
+    private List<@NotNull Long> productIds;
+}
\ No newline at end of file
@@ -5,7 +5,6 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import java.util.List;
 
 @Data
 @Builder
@@ -19,7 +18,7 @@ public class UserDTO {
     private String phone;
 
     @JsonProperty("saved_products")
-    private List<Long> savedProducts;
+    private long[] savedProducts;
 
     @Builder.Default
     private int savedProductsCount = 0;
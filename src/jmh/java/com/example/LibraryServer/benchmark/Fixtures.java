@@ -0,0 +1,63 @@
+package com.example.LibraryServer.benchmark;
+
+import com.example.LibraryServer.model.Product;
+import com.example.LibraryServer.model.User;
+import com.example.LibraryServer.service.UserProfile;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+public final class Fixtures {
+
+    private static final String[] CATEGORIES = {"Books", "Electronics", "Garden", "Kitchen", "Toys"};
+
+    private Fixtures() {
+    }
+
+    public static List<Product> products(int count) {
+        SplittableRandom random = new SplittableRandom(42);
+        LocalDateTime now = LocalDateTime.now();
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            products.add(Product.builder()
+                    .id((long) i)
+                    .name("Product " + i)
+                    .description("Description of product " + i + " with a few more words to serialize")
+                    .price(Math.round(random.nextDouble(1, 500) * 100) / 100.0)
+                    .category(CATEGORIES[i % CATEGORIES.length])
+                    .imageUrl("https://cdn.example.com/products/" + i + ".jpg")
+                    .isAvailable(i % 7 != 0)
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .build());
+        }
+        return products;
+    }
+
+    public static User user(long id, List<Product> savedProducts) {
+        return User.builder()
+                .id(id)
+                .username("user" + id)
+                .name("User " + id)
+                .email("user" + id + "@example.com")
+                .phone("+1555000" + id)
+                .password("$2a$10$abcdefghijklmnopqrstuv")
+                .savedProducts(new ArrayList<>(savedProducts))
+                .build();
+    }
+
+    public static List<UserProfile> profiles(int count, int savedProductsPerUser) {
+        long[] savedProductIds = new long[savedProductsPerUser];
+        for (int i = 0; i < savedProductsPerUser; i++) {
+            savedProductIds[i] = i + 1;
+        }
+
+        List<UserProfile> profiles = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            profiles.add(new UserProfile(id, "user" + id, "User " + id, "user" + id + "@example.com",
+                    "+1555000" + id, savedProductIds));
+        }
+        return profiles;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,81 @@
+package com.example.LibraryServer.dto;
+
+import com.example.LibraryServer.benchmark.Fixtures;
+import com.example.LibraryServer.mapper.DtoMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class JsonSerializationBenchmark {
+
+    @Param({"1", "50", "1000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private ObjectWriter productListWriter;
+    private ObjectWriter userListWriter;
+    private List<ProductDTO> products;
+    private List<UserDTO> users;
+    private byte[] productsJson;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        // same defaults Spring MVC's message converter gets, minus application properties
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        productListWriter = objectMapper.writerFor(new TypeReference<List<ProductDTO>>() {
+        });
+        userListWriter = objectMapper.writerFor(new TypeReference<List<UserDTO>>() {
+        });
+
+        products = Fixtures.products(size).stream()
+                .map(DtoMapper::toProductDTO)
+                .toList();
+        users = Fixtures.profiles(size, 20).stream()
+                .map(DtoMapper::toUserDTO)
+                .toList();
+        productsJson = productListWriter.writeValueAsBytes(products);
+    }
+
+    @Benchmark
+    public byte[] serializeProductsUntyped() throws JsonProcessingException {
+        // what ResponseEntity.ok(list) does: the element type is resolved per value
+        return objectMapper.writeValueAsBytes(products);
+    }
+
+    @Benchmark
+    public byte[] serializeProducts() throws JsonProcessingException {
+        return productListWriter.writeValueAsBytes(products);
+    }
+
+    @Benchmark
+    public byte[] serializeUsers() throws JsonProcessingException {
+        return userListWriter.writeValueAsBytes(users);
+    }
+
+    @Benchmark
+    public List<ProductDTO> deserializeProducts() throws Exception {
+        return objectMapper.readerFor(new TypeReference<List<ProductDTO>>() {
+        }).readValue(productsJson);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,56 @@
+package com.example.LibraryServer.mapper;
+
+import com.example.LibraryServer.benchmark.Fixtures;
+import com.example.LibraryServer.dto.ProductDTO;
+import com.example.LibraryServer.dto.UserDTO;
+import com.example.LibraryServer.model.Product;
+import com.example.LibraryServer.service.UserProfile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class DtoMappingBenchmark {
+
+    @Param({"1", "50", "1000"})
+    private int size;
+
+    private List<Product> products;
+    private List<UserProfile> profiles;
+
+    @Setup
+    public void setUp() {
+        products = Fixtures.products(size);
+        profiles = Fixtures.profiles(size, 20);
+    }
+
+    @Benchmark
+    public List<ProductDTO> productToDTO() {
+        return products.stream()
+                .map(DtoMapper::toProductDTO)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<UserDTO> userToDTO() {
+        return profiles.stream()
+                .map(DtoMapper::toUserDTO)
+                .toList();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,48 @@
+package com.example.LibraryServer.model;
+
+import com.example.LibraryServer.benchmark.Fixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class SavedProductsMappingBenchmark {
+
+    @Param({"0", "10", "100", "1000"})
+    private int savedProducts;
+
+    private User user;
+
+    @Setup
+    public void setUp() {
+        user = Fixtures.user(1L, Fixtures.products(savedProducts));
+    }
+
+    @Benchmark
+    public List<Long> getSavedProducts() {
+        return user.getSavedProducts();
+    }
+
+    @Benchmark
+    public long[] savedProductIdsArray() {
+        // the shape UserProfile carries
+        return user.getSavedProducts().stream()
+                .mapToLong(Long::longValue)
+                .toArray();
+    }
+}
\ No newline at end of file
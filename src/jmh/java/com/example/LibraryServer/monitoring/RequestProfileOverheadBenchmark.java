@@ -0,0 +1,93 @@
+package com.example.LibraryServer.monitoring;
+
+import com.example.LibraryServer.datasource.InstrumentedDataSource;
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the request instrumentation on a small query against in-memory H2: the difference between
+ * the plain and profiled runs is the per-request overhead of the JDBC proxies.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class RequestProfileOverheadBenchmark {
+
+    @Param({"1", "20", "200"})
+    private int rows;
+
+    private DataSource plain;
+    private DataSource instrumented;
+    private Connection keepAlive;
+
+    @Setup
+    public void setUp() throws SQLException {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:overhead;DB_CLOSE_DELAY=-1");
+        plain = h2;
+        instrumented = new InstrumentedDataSource(h2);
+
+        keepAlive = h2.getConnection();
+        try (Statement statement = keepAlive.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS items (id BIGINT PRIMARY KEY, name VARCHAR(100), price DOUBLE)");
+            statement.execute("DELETE FROM items");
+            statement.execute("INSERT INTO items SELECT x, 'item ' || x, x * 1.5 FROM SYSTEM_RANGE(1, 1000)");
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        keepAlive.close();
+    }
+
+    @Benchmark
+    public long plain() throws SQLException {
+        return query(plain);
+    }
+
+    @Benchmark
+    public long profiled() throws SQLException {
+        RequestProfile profile = RequestProfile.start();
+        try {
+            return query(instrumented);
+        } finally {
+            profile.end();
+        }
+    }
+
+    private long query(DataSource dataSource) throws SQLException {
+        long sum = 0;
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "SELECT id, name, price FROM items WHERE id <= ? ORDER BY id")) {
+            statement.setLong(1, rows);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    sum += resultSet.getLong(1) + resultSet.getString(2).length() + (long) resultSet.getDouble(3);
+                }
+            }
+        }
+        return sum;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,134 @@
+package com.example.LibraryServer.loadtest;
+
+import org.HdrHistogram.Recorder;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Closed-loop HTTP load generator: every client is a virtual thread that sends its next request
+ * as soon as the previous one completes, picking operations by weight.
+ */
+final class HttpLoadDriver {
+
+    private static final long MAX_TRACKED_LATENCY_NANOS = Duration.ofMinutes(1).toNanos();
+
+    record Operation(String name, int weight, BiFunction<URI, ThreadLocalRandom, HttpRequest.Builder> request) {
+
+        static Operation get(String name, int weight, Function<ThreadLocalRandom, String> path) {
+            return new Operation(name, weight,
+                    (baseUri, random) -> HttpRequest.newBuilder(baseUri.resolve(path.apply(random))).GET());
+        }
+    }
+
+    private final URI baseUri;
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    HttpLoadDriver(URI baseUri) {
+        this.baseUri = baseUri;
+    }
+
+    LoadReport run(List<Operation> operations, int clients, Duration warmup, Duration duration)
+            throws InterruptedException {
+        Map<String, Stats> stats = new LinkedHashMap<>();
+        operations.forEach(operation -> stats.put(operation.name(), new Stats()));
+        int totalWeight = operations.stream().mapToInt(Operation::weight).sum();
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Thread> threads = new ArrayList<>(clients);
+        for (int i = 0; i < clients; i++) {
+            threads.add(Thread.ofVirtual().name("load-client-" + i).start(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (running.get()) {
+                    Operation operation = pick(operations, totalWeight, random);
+                    execute(operation, stats.get(operation.name()), random);
+                }
+            }));
+        }
+
+        Thread.sleep(warmup.toMillis());
+        stats.values().forEach(Stats::reset);
+
+        long startedAt = System.nanoTime();
+        Thread.sleep(duration.toMillis());
+        Map<String, LoadReport.Endpoint> endpoints = new LinkedHashMap<>();
+        stats.forEach((name, endpointStats) -> endpoints.put(name, endpointStats.snapshot()));
+        long elapsedNanos = System.nanoTime() - startedAt;
+
+        running.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        return new LoadReport(clients, Duration.ofNanos(elapsedNanos), endpoints);
+    }
+
+    private void execute(Operation operation, Stats stats, ThreadLocalRandom random) {
+        HttpRequest request = operation.request().apply(baseUri, random)
+                .timeout(Duration.ofSeconds(30))
+                .build();
+
+        long startedAt = System.nanoTime();
+        try {
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            stats.record(System.nanoTime() - startedAt, response.statusCode());
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            stats.record(System.nanoTime() - startedAt, -1);
+        }
+    }
+
+    private static Operation pick(List<Operation> operations, int totalWeight, ThreadLocalRandom random) {
+        int ticket = random.nextInt(totalWeight);
+        for (Operation operation : operations) {
+            ticket -= operation.weight();
+            if (ticket < 0) {
+                return operation;
+            }
+        }
+        return operations.get(operations.size() - 1);
+    }
+
+    private static final class Stats {
+
+        private final Recorder latencies = new Recorder(MAX_TRACKED_LATENCY_NANOS, 3);
+        private final LongAdder clientErrors = new LongAdder();
+        private final LongAdder serverErrors = new LongAdder();
+
+        void record(long latencyNanos, int status) {
+            latencies.recordValue(Math.min(latencyNanos, MAX_TRACKED_LATENCY_NANOS));
+            if (status >= 400 && status < 500) {
+                clientErrors.increment();
+            } else if (status < 0 || status >= 500) {
+                serverErrors.increment();
+            }
+        }
+
+        void reset() {
+            latencies.reset();
+            clientErrors.reset();
+            serverErrors.reset();
+        }
+
+        LoadReport.Endpoint snapshot() {
+            return new LoadReport.Endpoint(latencies.getIntervalHistogram(),
+                    clientErrors.sumThenReset(), serverErrors.sumThenReset());
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,154 @@
+package com.example.LibraryServer.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Self-contained load test: starts a database stand-in, boots the application against it, seeds
+ * products, users and saves, then drives a weighted mix of catalog browse, product detail, login,
+ * save toggle and saved-list requests from many closed-loop clients. Prints per-endpoint throughput
+ * and latency percentiles and writes them as JSON. With {@code --replicas=N} the read-only
+ * transactions are routed to N extra embedded servers seeded with the same data.
+ *
+ * <pre>./gradlew loadTest -Pclients=500 -Pduration=120 -Pproducts=100000 -Pusers=20000 -Pdatabase=postgres</pre>
+ */
+public final class LibraryLoadTest {
+
+    private static final String DEFAULT_MIX = "browse:40,detail:25,login:5,toggle:10,saved:20";
+
+    private LibraryLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        LoadTestData data = new LoadTestData(
+                options.intValue("products", 10000),
+                options.intValue("users", 1000),
+                options.intValue("saves", 20));
+        String databaseKind = options.stringValue("database", "postgres");
+        List<LoadTestDatabase.Embedded> replicas = LoadTestDatabase.startReplicas(databaseKind, options.intValue("replicas", 0));
+        try {
+            // each stand-in gets its schema from a short-lived application and the same seed as the primary
+            for (LoadTestDatabase.Embedded replica : replicas) {
+                try (ConfigurableApplicationContext context = LoadTestApplication.start(replica)) {
+                    seed(data, context, replica);
+                }
+            }
+
+            List<String> args = new ArrayList<>(LoadTestDatabase.routingArgs(replicas));
+            args.add("--spring.threads.virtual.enabled=" + options.flag("virtual"));
+            run(data, options, databaseKind, args);
+        } finally {
+            for (LoadTestDatabase replica : replicas) {
+                replica.close();
+            }
+        }
+    }
+
+    private static void run(LoadTestData data, LoadTestOptions options, String databaseKind, List<String> args)
+            throws Exception {
+        int clients = options.intValue("clients", 200);
+        Duration warmup = options.seconds("warmup", 15);
+        Duration duration = options.seconds("duration", 60);
+        Path reportFile = Path.of(options.stringValue("report", "build/reports/loadtest/results.json"));
+
+        try (LoadTestDatabase database = LoadTestDatabase.start(databaseKind);
+             ConfigurableApplicationContext context = LoadTestApplication.start(database,
+                     args.toArray(String[]::new))) {
+
+            if (database instanceof LoadTestDatabase.Managed managed) {
+                seed(data, context, managed);
+            }
+
+            HttpLoadDriver driver = new HttpLoadDriver(LoadTestApplication.baseUri(context));
+            LoadReport report = driver.run(operations(data, options.stringValue("mix", DEFAULT_MIX)),
+                    clients, warmup, duration);
+
+            report.print("mixed workload", System.out);
+            Files.createDirectories(reportFile.toAbsolutePath().getParent());
+            new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(reportFile.toFile(), report.toMap());
+            System.out.println("Report written to " + reportFile.toAbsolutePath());
+        }
+    }
+
+    private static void seed(LoadTestData data, ConfigurableApplicationContext context,
+                             LoadTestDatabase.Managed database) {
+        long startedAt = System.nanoTime();
+        data.seed(context.getBean(JdbcTemplate.class), context.getBean(PasswordEncoder.class), database);
+        System.out.printf("Seeded %d products, %d users, %d saves per user in %d ms%n",
+                data.products(), data.users(), data.savesPerUser(),
+                Duration.ofNanos(System.nanoTime() - startedAt).toMillis());
+    }
+
+    static List<HttpLoadDriver.Operation> operations(LoadTestData data, String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.split(":");
+            weights.put(parts[0].trim(), Integer.parseInt(parts[1].trim()));
+        }
+
+        List<HttpLoadDriver.Operation> operations = new ArrayList<>();
+        weights.forEach((name, weight) -> {
+            if (weight > 0) {
+                operations.add(operation(name, weight, data));
+            }
+        });
+        return operations;
+    }
+
+    private static HttpLoadDriver.Operation operation(String name, int weight, LoadTestData data) {
+        return switch (name) {
+            case "browse" -> HttpLoadDriver.Operation.get("GET /api/products/page", weight, random -> {
+                String category = LoadTestData.CATEGORIES[random.nextInt(LoadTestData.CATEGORIES.length)];
+                return random.nextBoolean()
+                        ? "/api/products/page?size=20&category=" + category
+                        : "/api/products/page?size=20&sort=price&minPrice=" + random.nextInt(1000);
+            });
+            case "detail" -> HttpLoadDriver.Operation.get("GET /api/products/{id}", weight,
+                    random -> "/api/products/" + productId(random, data));
+            case "login" -> new HttpLoadDriver.Operation("POST /api/users/login", weight,
+                    (baseUri, random) -> json(baseUri.resolve("/api/users/login"),
+                            "{\"email\":\"" + LoadTestData.email(userId(random, data))
+                                    + "\",\"password\":\"" + LoadTestData.PASSWORD + "\"}"));
+            case "toggle" -> new HttpLoadDriver.Operation("POST /api/users/{id}/saved/{pid}", weight,
+                    (baseUri, random) -> json(baseUri.resolve("/api/users/" + userId(random, data)
+                            + "/saved/" + productId(random, data) + "?saveProduct=" + random.nextBoolean()), ""));
+            case "saved" -> HttpLoadDriver.Operation.get("GET /api/users/{id}/saved-products", weight,
+                    random -> "/api/users/" + userId(random, data) + "/saved-products");
+            case "feed" -> HttpLoadDriver.Operation.get("GET /api/users/{id}/saved/feed", weight,
+                    random -> "/api/users/" + userId(random, data) + "/saved/feed?size=20");
+            case "status" -> HttpLoadDriver.Operation.get("GET /api/users/{id}/saved/{pid}/status", weight,
+                    random -> "/api/users/" + userId(random, data) + "/saved/" + productId(random, data) + "/status");
+            case "catalog" -> HttpLoadDriver.Operation.get("GET /api/products/available", weight,
+                    random -> "/api/products/available");
+            default -> throw new IllegalArgumentException("Unknown operation in mix: " + name
+                    + " (browse, detail, login, toggle, saved, feed, status, catalog)");
+        };
+    }
+
+    private static HttpRequest.Builder json(URI uri, String body) {
+        return HttpRequest.newBuilder(uri)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+    }
+
+    private static long productId(ThreadLocalRandom random, LoadTestData data) {
+        return random.nextLong(1, data.products() + 1L);
+    }
+
+    private static long userId(ThreadLocalRandom random, LoadTestData data) {
+        return random.nextLong(1, data.users() + 1L);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,78 @@
+package com.example.LibraryServer.loadtest;
+
+import org.HdrHistogram.Histogram;
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+record LoadReport(int clients, Duration elapsed, Map<String, Endpoint> endpoints) {
+
+    record Endpoint(Histogram latencies, long clientErrors, long serverErrors) {
+
+        long requests() {
+            return latencies.getTotalCount();
+        }
+    }
+
+    Histogram combined() {
+        Histogram combined = new Histogram(3);
+        endpoints.values().forEach(endpoint -> combined.add(endpoint.latencies()));
+        return combined;
+    }
+
+    double throughput(long requests) {
+        return requests / (elapsed.toNanos() / 1e9);
+    }
+
+    void print(String title, PrintStream out) {
+        out.printf(Locale.ROOT, "%n== %s (%d clients, %.1fs) ==%n", title, clients, elapsed.toNanos() / 1e9);
+        out.printf(Locale.ROOT, "%-28s %10s %10s %8s %8s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "req/s", "4xx", "5xx/io", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        endpoints.forEach((name, endpoint) -> printRow(out, name, endpoint.latencies(),
+                endpoint.clientErrors(), endpoint.serverErrors()));
+        printRow(out, "TOTAL", combined(),
+                endpoints.values().stream().mapToLong(Endpoint::clientErrors).sum(),
+                endpoints.values().stream().mapToLong(Endpoint::serverErrors).sum());
+    }
+
+    private void printRow(PrintStream out, String name, Histogram latencies, long clientErrors, long serverErrors) {
+        out.printf(Locale.ROOT, "%-28s %10d %10.0f %8d %8d %9.2f %9.2f %9.2f %9.2f%n",
+                name, latencies.getTotalCount(), throughput(latencies.getTotalCount()), clientErrors, serverErrors,
+                millis(latencies.getValueAtPercentile(50)), millis(latencies.getValueAtPercentile(99)),
+                millis(latencies.getValueAtPercentile(99.9)), millis(latencies.getMaxValue()));
+    }
+
+    Map<String, Object> toMap() {
+        Map<String, Object> endpointStats = new LinkedHashMap<>();
+        endpoints.forEach((name, endpoint) -> endpointStats.put(name,
+                stats(endpoint.latencies(), endpoint.clientErrors(), endpoint.serverErrors())));
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("clients", clients);
+        report.put("elapsedSeconds", elapsed.toNanos() / 1e9);
+        report.put("total", stats(combined(),
+                endpoints.values().stream().mapToLong(Endpoint::clientErrors).sum(),
+                endpoints.values().stream().mapToLong(Endpoint::serverErrors).sum()));
+        report.put("endpoints", endpointStats);
+        return report;
+    }
+
+    private Map<String, Object> stats(Histogram latencies, long clientErrors, long serverErrors) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("requests", latencies.getTotalCount());
+        stats.put("throughput", throughput(latencies.getTotalCount()));
+        stats.put("clientErrors", clientErrors);
+        stats.put("serverErrors", serverErrors);
+        stats.put("p50Ms", millis(latencies.getValueAtPercentile(50)));
+        stats.put("p99Ms", millis(latencies.getValueAtPercentile(99)));
+        stats.put("p999Ms", millis(latencies.getValueAtPercentile(99.9)));
+        stats.put("maxMs", millis(latencies.getMaxValue()));
+        return stats;
+    }
+
+    static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.example.LibraryServer.loadtest;
+
+import com.example.LibraryServer.LibraryServerApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+final class LoadTestApplication {
+
+    private static final List<String> QUIET = List.of(
+            "--server.port=0",
+            "--management.server.port=0",
+            "--spring.jpa.show-sql=false",
+            "--logging.level.root=WARN",
+            "--logging.level.org.springframework.web=WARN",
+            "--logging.level.org.hibernate.SQL=WARN",
+            "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+            "--logging.level.com.example.LibraryServer=WARN");
+
+    private LoadTestApplication() {
+    }
+
+    // command-line arguments, unlike SpringApplicationBuilder.properties, override application.properties
+    static ConfigurableApplicationContext start(LoadTestDatabase database, String... extraArgs) {
+        List<String> args = new ArrayList<>(QUIET);
+        args.addAll(database.applicationArgs());
+        args.addAll(List.of(extraArgs));
+        return new SpringApplicationBuilder(LibraryServerApplication.class).run(args.toArray(String[]::new));
+    }
+
+    static URI baseUri(ConfigurableApplicationContext context) {
+        int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+        return URI.create("http://localhost:" + port);
+    }
+}
\ No newline at end of file
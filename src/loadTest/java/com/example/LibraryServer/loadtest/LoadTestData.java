@@ -0,0 +1,93 @@
+package com.example.LibraryServer.loadtest;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Seeds products 1..products, users 1..users and savesPerUser distinct saves per user with plain JDBC
+ * batches. Every user's password is {@link #PASSWORD}, hashed once with the application's encoder.
+ */
+record LoadTestData(int products, int users, int savesPerUser) {
+
+    static final String PASSWORD = "loadtest-password";
+    static final String[] CATEGORIES = {"Books", "Electronics", "Garden", "Kitchen", "Toys", "Sports", "Music"};
+
+    private static final int BATCH_SIZE = 1000;
+
+    static String email(long userId) {
+        return "user" + userId + "@loadtest.local";
+    }
+
+    void seed(JdbcTemplate jdbcTemplate, PasswordEncoder passwordEncoder, LoadTestDatabase.Managed database) {
+        SplittableRandom random = new SplittableRandom(42);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        try (Batch batch = new Batch(jdbcTemplate, "INSERT INTO products (id, name, description, price, category, "
+                + "image_url, is_available, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+            for (long id = 1; id <= products; id++) {
+                batch.add(id, "Product " + id, "Load test product number " + id,
+                        Math.round(random.nextDouble(1, 1000) * 100) / 100.0, CATEGORIES[(int) (id % CATEGORIES.length)],
+                        "https://cdn.example.com/products/" + id + ".jpg", id % 10 != 0, now, now);
+            }
+        }
+
+        String passwordHash = passwordEncoder.encode(PASSWORD);
+        try (Batch batch = new Batch(jdbcTemplate,
+                "INSERT INTO users (id, username, name, email, phone, password) VALUES (?, ?, ?, ?, ?, ?)")) {
+            for (long id = 1; id <= users; id++) {
+                batch.add(id, "user" + id, "Load Test User " + id, email(id), "+1555" + id, passwordHash);
+            }
+        }
+
+        int saves = Math.min(savesPerUser, products);
+        try (Batch batch = new Batch(jdbcTemplate,
+                "INSERT INTO user_saved_products (user_id, product_id, saved_at) VALUES (?, ?, ?)")) {
+            for (long userId = 1; userId <= users; userId++) {
+                // consecutive ids from a random start are distinct without tracking a set
+                long first = random.nextLong(products);
+                for (int i = 0; i < saves; i++) {
+                    batch.add(userId, (first + i) % products + 1, now);
+                }
+            }
+        }
+
+        jdbcTemplate.execute(database.advanceSequenceSql("products_seq", products));
+        jdbcTemplate.execute(database.advanceSequenceSql("users_seq", users));
+    }
+
+    private static final class Batch implements AutoCloseable {
+
+        private final JdbcTemplate jdbcTemplate;
+        private final String sql;
+        private final List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+
+        private Batch(JdbcTemplate jdbcTemplate, String sql) {
+            this.jdbcTemplate = jdbcTemplate;
+            this.sql = sql;
+        }
+
+        void add(Object... row) {
+            rows.add(row);
+            if (rows.size() == BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        @Override
+        public void close() {
+            flush();
+        }
+
+        private void flush() {
+            if (!rows.isEmpty()) {
+                jdbcTemplate.batchUpdate(sql, rows);
+                rows.clear();
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,146 @@
+package com.example.LibraryServer.loadtest;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Database the load-tested application runs against. {@code postgres} starts a throwaway embedded
+ * PostgreSQL server from binaries on the load-test classpath, {@code h2} uses an in-memory H2 database
+ * in PostgreSQL mode (no full-text search index, no sequence migration), and {@code external} keeps
+ * whatever application.properties points at. {@link #startReplicas} adds embedded servers that stand in
+ * for read replicas: they are seeded with the same data but never receive later writes, so they
+ * behave like replicas that stopped replaying and exercise the read-your-writes routing.
+ */
+abstract class LoadTestDatabase implements AutoCloseable {
+
+    static LoadTestDatabase start(String kind) throws IOException {
+        return switch (kind) {
+            case "postgres" -> embedded();
+            case "h2" -> new H2();
+            case "external" -> new External();
+            default -> throw new IllegalArgumentException("Unknown database: " + kind + " (postgres, h2, external)");
+        };
+    }
+
+    static List<Embedded> startReplicas(String kind, int count) throws IOException {
+        if (count > 0 && !kind.equals("postgres")) {
+            throw new IllegalArgumentException("Replica stand-ins need --database=postgres");
+        }
+
+        List<Embedded> replicas = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            replicas.add(embedded());
+        }
+        return replicas;
+    }
+
+    static Embedded embedded() throws IOException {
+        return new Embedded(EmbeddedPostgres.builder()
+                .setServerConfig("max_connections", "300")
+                .start());
+    }
+
+    abstract List<String> applicationArgs();
+
+    /** Arguments that route the application's read-only transactions to {@code replicas}. */
+    static List<String> routingArgs(List<Embedded> replicas) {
+        if (replicas.isEmpty()) {
+            return List.of();
+        }
+
+        String urls = replicas.stream()
+                .map(Embedded::jdbcUrl)
+                .collect(Collectors.joining(","));
+        return List.of(
+                "--app.datasource.routing.enabled=true",
+                "--app.datasource.replica-urls=" + urls);
+    }
+
+    @Override
+    public void close() throws IOException {
+    }
+
+    /** A database that starts empty and may be seeded with fixed ids. */
+    abstract static class Managed extends LoadTestDatabase {
+
+        /** Moves an id sequence past {@code maxId} so the application's pooled generator skips seeded ids. */
+        abstract String advanceSequenceSql(String sequence, long maxId);
+    }
+
+    /** The only kind reachable outside the application's process, and the only one R2DBC can use. */
+    static final class Embedded extends Managed {
+
+        private final EmbeddedPostgres postgres;
+
+        private Embedded(EmbeddedPostgres postgres) {
+            this.postgres = postgres;
+        }
+
+        String jdbcUrl() {
+            return "jdbc:postgresql://localhost:" + postgres.getPort() + "/postgres?reWriteBatchedInserts=true";
+        }
+
+        @Override
+        List<String> applicationArgs() {
+            return List.of(
+                    "--spring.datasource.url=" + jdbcUrl(),
+                    "--spring.datasource.username=postgres",
+                    "--spring.datasource.password=");
+        }
+
+        @Override
+        String advanceSequenceSql(String sequence, long maxId) {
+            return "SELECT setval('" + sequence + "', " + Math.max(maxId, 1) + ")";
+        }
+
+        /** Direct connections for seeding when the application runs in another process. */
+        DataSource dataSource() {
+            return postgres.getPostgresDatabase();
+        }
+
+        /** Connection arguments for the reactive (R2DBC) variant of the application. */
+        List<String> r2dbcArgs() {
+            return List.of(
+                    "--spring.r2dbc.url=r2dbc:postgresql://localhost:" + postgres.getPort() + "/postgres",
+                    "--spring.r2dbc.username=postgres",
+                    "--spring.r2dbc.password=");
+        }
+
+        @Override
+        public void close() throws IOException {
+            postgres.close();
+        }
+    }
+
+    private static final class H2 extends Managed {
+
+        @Override
+        List<String> applicationArgs() {
+            return List.of(
+                    "--spring.datasource.url=jdbc:h2:mem:loadtest;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;"
+                            + "DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+                    "--spring.datasource.driver-class-name=org.h2.Driver",
+                    "--spring.datasource.username=sa",
+                    "--spring.datasource.password=",
+                    "--spring.sql.init.mode=never");
+        }
+
+        @Override
+        String advanceSequenceSql(String sequence, long maxId) {
+            // matches Postgres' setval(maxId) followed by nextval with INCREMENT BY 50
+            return "ALTER SEQUENCE " + sequence + " RESTART WITH " + (maxId + 50);
+        }
+    }
+
+    private static final class External extends LoadTestDatabase {
+
+        @Override
+        List<String> applicationArgs() {
+            return List.of();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,156 @@
+package com.example.LibraryServer.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the same read-heavy workload against the servlet application and the reactive (WebFlux +
+ * R2DBC) module on one seeded embedded Postgres. Each stack runs from its boot jar in its own JVM
+ * with the same heap, so neither shares a process with the load driver.
+ *
+ * <pre>./gradlew stackBenchmark -Pclients=2000 -Pduration=60 -Pvirtual=true</pre>
+ */
+public final class StackComparisonBenchmark {
+
+    private static final String DEFAULT_MIX = "browse:35,detail:30,saved:15,feed:15,toggle:5";
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+
+    private StackComparisonBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        LoadTestData data = new LoadTestData(
+                options.intValue("products", 10000),
+                options.intValue("users", 1000),
+                options.intValue("saves", 20));
+        int clients = options.intValue("clients", 1000);
+        Duration warmup = options.seconds("warmup", 15);
+        Duration duration = options.seconds("duration", 60);
+        Path servletJar = Path.of(options.stringValue("servlet-jar", "build/libs/LibraryServer-0.0.1-SNAPSHOT.jar"));
+        Path reactiveJar = Path.of(options.stringValue("reactive-jar",
+                "reactive/build/libs/reactive-0.0.1-SNAPSHOT.jar"));
+        Path reportDir = Path.of(options.stringValue("report-dir", "build/reports/stack-benchmark"));
+        String heap = options.stringValue("heap", "1g");
+        Files.createDirectories(reportDir);
+
+        List<HttpLoadDriver.Operation> operations =
+                LibraryLoadTest.operations(data, options.stringValue("mix", DEFAULT_MIX));
+        List<String> quiet = List.of("--logging.level.root=WARN", "--management.server.port=0");
+
+        Map<String, LoadReport> reports = new LinkedHashMap<>();
+        try (LoadTestDatabase.Embedded database = LoadTestDatabase.embedded()) {
+            List<String> servletArgs = new ArrayList<>(quiet);
+            servletArgs.addAll(database.applicationArgs());
+            servletArgs.add("--spring.threads.virtual.enabled=" + options.flag("virtual"));
+
+            // the servlet application owns the schema; its caches are built at startup, so it is
+            // restarted after seeding rather than measured against an empty catalog
+            try (Server schema = Server.start("servlet-schema", servletJar, heap, servletArgs, reportDir)) {
+                data.seed(new JdbcTemplate(database.dataSource()), new BCryptPasswordEncoder(), database);
+            }
+
+            try (Server servlet = Server.start("servlet", servletJar, heap, servletArgs, reportDir)) {
+                reports.put("servlet (Tomcat + JDBC)",
+                        new HttpLoadDriver(servlet.baseUri()).run(operations, clients, warmup, duration));
+            }
+
+            List<String> reactiveArgs = new ArrayList<>(quiet);
+            reactiveArgs.addAll(database.r2dbcArgs());
+            try (Server reactive = Server.start("reactive", reactiveJar, heap, reactiveArgs, reportDir)) {
+                reports.put("reactive (Netty + R2DBC)",
+                        new HttpLoadDriver(reactive.baseUri()).run(operations, clients, warmup, duration));
+            }
+        }
+
+        Map<String, Object> json = new LinkedHashMap<>();
+        reports.forEach((stack, report) -> {
+            report.print(stack, System.out);
+            json.put(stack, report.toMap());
+        });
+        Path reportFile = reportDir.resolve("results.json");
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(reportFile.toFile(), json);
+        System.out.println("Report written to " + reportFile.toAbsolutePath());
+    }
+
+    private record Server(Process process, URI baseUri) implements AutoCloseable {
+
+        static Server start(String name, Path jar, String heap, List<String> args, Path logDir)
+                throws IOException, InterruptedException {
+            if (!Files.isRegularFile(jar)) {
+                throw new IllegalArgumentException("Boot jar not found: " + jar.toAbsolutePath());
+            }
+
+            int port = freePort();
+            List<String> command = new ArrayList<>(List.of(
+                    Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                    "-Xms" + heap, "-Xmx" + heap, "-jar", jar.toString(), "--server.port=" + port));
+            command.addAll(args);
+
+            Process process = new ProcessBuilder(command)
+                    .redirectErrorStream(true)
+                    .redirectOutput(logDir.resolve(name + ".log").toFile())
+                    .start();
+            Server server = new Server(process, URI.create("http://localhost:" + port));
+            try {
+                server.awaitReady(name);
+            } catch (IOException | InterruptedException | RuntimeException e) {
+                server.close();
+                throw e;
+            }
+            return server;
+        }
+
+        private void awaitReady(String name) throws IOException, InterruptedException {
+            HttpClient client = HttpClient.newHttpClient();
+            HttpRequest probe = HttpRequest.newBuilder(baseUri.resolve("/api/products/page?size=1"))
+                    .timeout(Duration.ofSeconds(5))
+                    .build();
+            long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+
+            while (System.nanoTime() < deadline) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException(name + " exited with " + process.exitValue() + ", see its log");
+                }
+                try {
+                    if (client.send(probe, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return;
+                    }
+                } catch (IOException e) {
+                    // not listening yet
+                }
+                Thread.sleep(500);
+            }
+            throw new IllegalStateException(name + " did not start within " + STARTUP_TIMEOUT);
+        }
+
+        private static int freePort() throws IOException {
+            try (ServerSocket socket = new ServerSocket(0)) {
+                return socket.getLocalPort();
+            }
+        }
+
+        @Override
+        public void close() throws InterruptedException {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+}
\ No newline at end of file
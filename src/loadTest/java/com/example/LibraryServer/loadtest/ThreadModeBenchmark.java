@@ -0,0 +1,58 @@
+package com.example.LibraryServer.loadtest;
+
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Starts the server once with platform request threads and once with virtual threads and drives the
+ * same closed-loop, JDBC-bound workload against both, so the two modes can be compared at high
+ * client concurrency. With the default {@code --database=external} the database from
+ * application.properties must be reachable and hold at least {@code --users} users and
+ * {@code --products} products; {@code postgres} or {@code h2} start and seed a fresh one per mode.
+ *
+ * <pre>./gradlew threadModeBenchmark -Pclients=2000 -Pduration=60</pre>
+ */
+public final class ThreadModeBenchmark {
+
+    private ThreadModeBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        int clients = options.intValue("clients", 1000);
+        Duration warmup = options.seconds("warmup", 10);
+        Duration duration = options.seconds("duration", 30);
+        int users = options.intValue("users", 1000);
+        int products = options.intValue("products", 10000);
+
+        List<HttpLoadDriver.Operation> operations = List.of(
+                HttpLoadDriver.Operation.get("GET /api/users/{id}", 5,
+                        random -> "/api/users/" + random.nextInt(1, users + 1)),
+                HttpLoadDriver.Operation.get("GET /api/users/{id}/saved-products", 3,
+                        random -> "/api/users/" + random.nextInt(1, users + 1) + "/saved-products"),
+                HttpLoadDriver.Operation.get("GET /api/products/page", 2,
+                        random -> "/api/products/page?size=20&sort=price&minPrice=" + random.nextInt(1000)));
+
+        Map<String, LoadReport> reports = new LinkedHashMap<>();
+        for (boolean virtual : new boolean[] {false, true}) {
+            String mode = virtual ? "virtual threads" : "platform threads";
+            try (LoadTestDatabase database = LoadTestDatabase.start(options.stringValue("database", "external"));
+                 ConfigurableApplicationContext context = LoadTestApplication.start(database,
+                         "--spring.threads.virtual.enabled=" + virtual)) {
+                if (database instanceof LoadTestDatabase.Managed managed) {
+                    new LoadTestData(products, users, 20).seed(context.getBean(JdbcTemplate.class),
+                            context.getBean(PasswordEncoder.class), managed);
+                }
+                HttpLoadDriver driver = new HttpLoadDriver(LoadTestApplication.baseUri(context));
+                reports.put(mode, driver.run(operations, clients, warmup, duration));
+            }
+        }
+
+        reports.forEach((mode, report) -> report.print(mode, System.out));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,140 @@
+package com.example.LibraryServer.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Micro-batches single-key loads. The first key requested opens a batch that collects keys for the
+ * window and then runs one bulk load (a WHERE id IN (...) query) on a loader thread; a batch that
+ * reaches the maximum size goes at once. Callers asking for the same key in one batch share its
+ * result. With a zero window every key is loaded on its own, on the caller's thread. The bulk load
+ * runs in the context of the request that opened the batch: its read-your-writes pin and its
+ * profile, which the batch's statements count towards.
+ */
+public class BatchLoader<K, V> {
+
+    private static final ScheduledExecutorService WINDOWS = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "batch-loader-window");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Function<Collection<K>, Map<K, V>> bulkLoader;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final Counter requests;
+    private final DistributionSummary batchSizes;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private Batch open;
+
+    public BatchLoader(String name, Duration window, int maxBatchSize,
+                       Function<Collection<K>, Map<K, V>> bulkLoader, MeterRegistry meterRegistry) {
+        this.bulkLoader = bulkLoader;
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+
+        this.requests = Counter.builder("batchloader.requests")
+                .tag("name", name)
+                .description("Single-key loads requested")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("batchloader.batch.size")
+                .tag("name", name)
+                .description("Distinct keys per bulk load")
+                .register(meterRegistry);
+        Gauge.builder("batchloader.requests.per.load", this, BatchLoader::requestsPerLoad)
+                .tag("name", name)
+                .description("Single-key loads answered per bulk load")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return the value loaded for the key, or null when the bulk load did not return it
+     */
+    public V get(K key) {
+        requests.increment();
+        if (windowNanos <= 0) {
+            return load(List.of(key)).get(key);
+        }
+
+        CompletableFuture<V> result;
+        Batch full = null;
+        lock.lock();
+        try {
+            if (open == null) {
+                Batch batch = new Batch();
+                open = batch;
+                WINDOWS.schedule(() -> close(batch), windowNanos, TimeUnit.NANOSECONDS);
+            }
+            result = open.futures.computeIfAbsent(key, k -> new CompletableFuture<>());
+            if (open.futures.size() >= maxBatchSize) {
+                full = open;
+                open = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (full != null) {
+            full.dispatch();
+        }
+        return CacheLoads.join(result);
+    }
+
+    private void close(Batch batch) {
+        lock.lock();
+        try {
+            // a batch that filled up before its window ended has been dispatched already
+            if (open != batch) {
+                return;
+            }
+            open = null;
+        } finally {
+            lock.unlock();
+        }
+        batch.dispatch();
+    }
+
+    private Map<K, V> load(Collection<K> keys) {
+        batchSizes.record(keys.size());
+        return bulkLoader.apply(keys);
+    }
+
+    private double requestsPerLoad() {
+        long loads = batchSizes.count();
+        return loads == 0 ? 0 : requests.count() / loads;
+    }
+
+    private final class Batch {
+
+        private final Map<K, CompletableFuture<V>> futures = new HashMap<>();
+        // bound when the batch opens; it is dispatched from the window thread or another caller
+        private final Runnable task = CacheLoads.inRequestContext(this::run);
+
+        void dispatch() {
+            CacheLoads.LOADER.execute(task);
+        }
+
+        private void run() {
+            try {
+                Map<K, V> loaded = load(List.copyOf(futures.keySet()));
+                futures.forEach((key, future) -> future.complete(loaded.get(key)));
+            } catch (RuntimeException | Error e) {
+                futures.values().forEach(future -> future.completeExceptionally(e));
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,40 @@
+package com.example.LibraryServer.cache;
+
+import com.example.LibraryServer.datasource.ReadYourWrites;
+import com.example.LibraryServer.monitoring.RequestProfile;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Caffeine runs synchronous loaders inside ConcurrentHashMap.compute, which pins a virtual
+ * thread's carrier for the whole JDBC round trip. Our caches are async instead: each load runs
+ * on its own virtual thread outside the map lock, and callers park on the shared future.
+ */
+final class CacheLoads {
+
+    private static final Executor VIRTUAL_THREADS = Executors.newVirtualThreadPerTaskExecutor();
+
+    // a load started by a request reads the primary if it is pinned and counts towards its profile
+    static final Executor LOADER = task -> VIRTUAL_THREADS.execute(inRequestContext(task));
+
+    private CacheLoads() {
+    }
+
+    // captures the calling request's context now, for a task that may be dispatched from another thread
+    static Runnable inRequestContext(Runnable task) {
+        return ReadYourWrites.propagate(RequestProfile.propagate(task));
+    }
+
+    static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,46 @@
+package com.example.LibraryServer.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * One serialized catalog variant in identity and gzip encodings. The arrays are never handed out,
+ * so a snapshot is immutable once built and can be written to any number of responses concurrently.
+ */
+public final class CatalogSnapshot {
+
+    private final String eTag;
+    private final byte[] json;
+    private final byte[] gzip;
+
+    private CatalogSnapshot(String eTag, byte[] json, byte[] gzip) {
+        this.eTag = eTag;
+        this.json = json;
+        this.gzip = gzip;
+    }
+
+    static CatalogSnapshot of(String eTag, byte[] json) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(json.length / 4, 64));
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed, 8192)) {
+            out.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new CatalogSnapshot(eTag, json, compressed.toByteArray());
+    }
+
+    public String getETag(boolean gzipped) {
+        return gzipped ? eTag.substring(0, eTag.length() - 1) + "-gzip\"" : eTag;
+    }
+
+    public int getLength(boolean gzipped) {
+        return gzipped ? gzip.length : json.length;
+    }
+
+    public void writeTo(OutputStream out, boolean gzipped) throws IOException {
+        out.write(gzipped ? gzip : json);
+    }
+}
\ No newline at end of file
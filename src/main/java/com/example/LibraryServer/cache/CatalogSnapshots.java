@@ -0,0 +1,190 @@
+package com.example.LibraryServer.cache;
+
+import com.example.LibraryServer.dto.ProductDTO;
+import com.example.LibraryServer.event.ProductChangedEvent;
+import com.example.LibraryServer.event.ProductsImportedEvent;
+import com.example.LibraryServer.mapper.DtoMapper;
+import com.example.LibraryServer.repository.CatalogVersion;
+import com.example.LibraryServer.service.ProductService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps GET /api/products and /api/products/available pre-serialized. Any product change drops the
+ * current snapshots (readers fall back to the regular cached path) and a background refresh rebuilds
+ * both variants in one streaming pass. A rebuild that overlaps a change is discarded, so a published
+ * snapshot always reflects at least the catalog version in its ETag.
+ */
+@Component
+@Slf4j
+public class CatalogSnapshots {
+
+    private final ProductService productService;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final long maxProducts;
+    private final Timer rebuildTimer;
+
+    private final AtomicLong changes = new AtomicLong();
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private volatile long changesAtLastRefresh;
+    private volatile Catalog current;
+    private volatile String currentCatalogETag;
+
+    private record Catalog(CatalogSnapshot all, CatalogSnapshot available) {
+    }
+
+    public CatalogSnapshots(ProductService productService,
+                            ObjectMapper objectMapper,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.catalog.snapshot.enabled}") boolean enabled,
+                            @Value("${app.catalog.snapshot.max-products}") long maxProducts) {
+        this.productService = productService;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.maxProducts = maxProducts;
+        this.rebuildTimer = Timer.builder("catalog.snapshot.rebuild")
+                .description("Time to query, serialize and compress the catalog snapshots")
+                .register(meterRegistry);
+
+        Gauge.builder("catalog.snapshot.version", version, AtomicLong::get)
+                .description("Number of catalog snapshots published since startup")
+                .register(meterRegistry);
+        registerSize(meterRegistry, "all", false);
+        registerSize(meterRegistry, "all", true);
+        registerSize(meterRegistry, "available", false);
+        registerSize(meterRegistry, "available", true);
+    }
+
+    public CatalogSnapshot getAll() {
+        Catalog catalog = current;
+        return catalog == null ? null : catalog.all();
+    }
+
+    public CatalogSnapshot getAvailable() {
+        Catalog catalog = current;
+        return catalog == null ? null : catalog.available();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        changes.incrementAndGet();
+        current = null;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsImported(ProductsImportedEvent event) {
+        changes.incrementAndGet();
+        current = null;
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        refresh();
+    }
+
+    // also catches writes made by other instances or straight to the database, e.g. a load-test seed
+    @Scheduled(fixedDelayString = "${app.catalog.snapshot.refresh-interval-ms}",
+            initialDelayString = "${app.catalog.snapshot.refresh-interval-ms}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+
+        // wait for a quiet interval so bulk imports don't trigger a rebuild per tick
+        long changesNow = changes.get();
+        if (changesNow != changesAtLastRefresh) {
+            changesAtLastRefresh = changesNow;
+            return;
+        }
+
+        CatalogVersion catalogVersion = productService.loadCatalogVersion();
+        if (current != null && catalogVersion.eTag("all").equals(currentCatalogETag)) {
+            return;
+        }
+        if (catalogVersion.getProductCount() > maxProducts || !rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            rebuildTimer.record(() -> rebuild(catalogVersion));
+        } catch (RuntimeException e) {
+            log.warn("Catalog snapshot rebuild failed", e);
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    private void rebuild(CatalogVersion catalogVersion) {
+        long changesAtStart = changes.get();
+        ObjectWriter writer = objectMapper.writerFor(ProductDTO.class);
+        ByteArrayOutputStream allJson = new ByteArrayOutputStream(1 << 16);
+        ByteArrayOutputStream availableJson = new ByteArrayOutputStream(1 << 16);
+
+        try (JsonGenerator all = objectMapper.getFactory().createGenerator(allJson);
+             JsonGenerator available = objectMapper.getFactory().createGenerator(availableJson)) {
+            all.writeStartArray();
+            available.writeStartArray();
+            productService.exportProducts(product -> {
+                ProductDTO dto = DtoMapper.toProductDTO(product);
+                try {
+                    writer.writeValue(all, dto);
+                    if (Boolean.TRUE.equals(product.getIsAvailable())) {
+                        writer.writeValue(available, dto);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            all.writeEndArray();
+            available.writeEndArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        Catalog catalog = new Catalog(
+                CatalogSnapshot.of(catalogVersion.eTag("all"), allJson.toByteArray()),
+                CatalogSnapshot.of(catalogVersion.eTag("available"), availableJson.toByteArray()));
+
+        currentCatalogETag = catalogVersion.eTag("all");
+        current = catalog;
+
+        // a change committed while streaming may or may not be in the bytes; onProductChanged bumps
+        // the counter before clearing, so checking after publishing cannot miss it
+        if (changes.get() != changesAtStart) {
+            current = null;
+            return;
+        }
+        version.incrementAndGet();
+    }
+
+    private void registerSize(MeterRegistry meterRegistry, String variant, boolean gzipped) {
+        Gauge.builder("catalog.snapshot.size", this, snapshots -> {
+                    CatalogSnapshot snapshot = variant.equals("all") ? snapshots.getAll() : snapshots.getAvailable();
+                    return snapshot == null ? 0 : snapshot.getLength(gzipped);
+                })
+                .description("Serialized catalog snapshot size")
+                .baseUnit("bytes")
+                .tags("variant", variant, "encoding", gzipped ? "gzip" : "identity")
+                .register(meterRegistry);
+    }
+}
\ No newline at end of file
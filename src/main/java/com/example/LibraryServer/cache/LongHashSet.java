@@ -0,0 +1,82 @@
+package com.example.LibraryServer.cache;
+
+import java.util.Arrays;
+
+/**
+ * Immutable open-addressing set of primitive longs. Updates return a new
+ * instance, so readers never need to lock.
+ */
+final class LongHashSet {
+
+    static final LongHashSet EMPTY = new LongHashSet(new long[0], new long[2], false);
+
+    private static final long FREE = 0L;
+
+    private final long[] values;
+    private final long[] table;
+    private final boolean containsFree;
+
+    private LongHashSet(long[] values, long[] table, boolean containsFree) {
+        this.values = values;
+        this.table = table;
+        this.containsFree = containsFree;
+    }
+
+    static LongHashSet of(long[] values) {
+        long[] distinct = Arrays.stream(values).distinct().toArray();
+        if (distinct.length == 0) {
+            return EMPTY;
+        }
+
+        long[] table = new long[tableSize(distinct.length)];
+        boolean containsFree = false;
+        for (long value : distinct) {
+            if (value == FREE) {
+                containsFree = true;
+            } else {
+                table[slotFor(table, value)] = value;
+            }
+        }
+        return new LongHashSet(distinct, table, containsFree);
+    }
+
+    boolean contains(long value) {
+        if (value == FREE) {
+            return containsFree;
+        }
+        return table[slotFor(table, value)] == value;
+    }
+
+    LongHashSet with(long value) {
+        if (contains(value)) {
+            return this;
+        }
+        long[] grown = Arrays.copyOf(values, values.length + 1);
+        grown[values.length] = value;
+        return of(grown);
+    }
+
+    LongHashSet without(long value) {
+        if (!contains(value)) {
+            return this;
+        }
+        return of(Arrays.stream(values).filter(v -> v != value).toArray());
+    }
+
+    int size() {
+        return values.length;
+    }
+
+    private static int tableSize(int size) {
+        return Integer.highestOneBit(Math.max(2, size) * 2 - 1) << 1;
+    }
+
+    private static int slotFor(long[] table, long value) {
+        int mask = table.length - 1;
+        int slot = (int) ((value * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+        while (table[slot] != FREE && table[slot] != value) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,88 @@
+package com.example.LibraryServer.cache;
+
+import com.example.LibraryServer.event.ProductChangedEvent;
+import com.example.LibraryServer.event.ProductsImportedEvent;
+import com.example.LibraryServer.model.Product;
+import com.example.LibraryServer.repository.CatalogVersion;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+@Component
+public class ProductCache {
+
+    private final AsyncCache<Long, Optional<Product>> products;
+    private final AsyncCache<String, byte[]> responses;
+    private final AsyncCache<String, CatalogVersion> catalogVersion;
+
+    public ProductCache(MeterRegistry meterRegistry,
+                        @Value("${app.cache.products.max-size}") long maxProducts,
+                        @Value("${app.cache.products.ttl}") Duration productTtl,
+                        @Value("${app.cache.responses.max-bytes}") long maxResponseBytes,
+                        @Value("${app.cache.responses.ttl}") Duration responseTtl) {
+        this.products = Caffeine.newBuilder()
+                .maximumSize(maxProducts)
+                .expireAfterWrite(productTtl)
+                .executor(CacheLoads.LOADER)
+                .recordStats()
+                .buildAsync();
+
+        this.responses = Caffeine.newBuilder()
+                .maximumWeight(maxResponseBytes)
+                .weigher((String key, byte[] body) -> body.length)
+                .expireAfterWrite(responseTtl)
+                .executor(CacheLoads.LOADER)
+                .recordStats()
+                .buildAsync();
+
+        this.catalogVersion = Caffeine.newBuilder()
+                .maximumSize(1)
+                .expireAfterWrite(responseTtl)
+                .executor(CacheLoads.LOADER)
+                .buildAsync();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, products.synchronous(), "products");
+        CaffeineCacheMetrics.monitor(meterRegistry, responses.synchronous(), "product-responses");
+    }
+
+    public Optional<Product> getProduct(Long id, Function<Long, Optional<Product>> loader) {
+        return CacheLoads.join(products.get(id, loader));
+    }
+
+    public byte[] getResponse(String key, Supplier<byte[]> serializer) {
+        return CacheLoads.join(responses.get(key, k -> serializer.get()));
+    }
+
+    public Optional<Product> getCachedProduct(Long id) {
+        CompletableFuture<Optional<Product>> cached = products.getIfPresent(id);
+        return cached != null && cached.isDone() ? CacheLoads.join(cached) : Optional.empty();
+    }
+
+    public CatalogVersion getCatalogVersion(Supplier<CatalogVersion> loader) {
+        return CacheLoads.join(catalogVersion.get("catalog", key -> loader.get()));
+    }
+
+    // responses go before the version so a fresh version is never paired with a stale body
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        products.synchronous().invalidate(event.getProductId());
+        responses.synchronous().invalidateAll();
+        catalogVersion.synchronous().invalidateAll();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsImported(ProductsImportedEvent event) {
+        products.synchronous().invalidateAll(event.getProducts().stream().map(Product::getId).toList());
+        responses.synchronous().invalidateAll();
+        catalogVersion.synchronous().invalidateAll();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,206 @@
+package com.example.LibraryServer.cache;
+
+import com.example.LibraryServer.event.ProductChangedEvent;
+import com.example.LibraryServer.event.SavedProductChangedEvent;
+import com.example.LibraryServer.journal.SavedProductsWriteBehind;
+import com.example.LibraryServer.model.Product;
+import com.example.LibraryServer.repository.ProductRepository;
+import com.example.LibraryServer.repository.SavedCountRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind counters for products.saved_count and users.saved_products_count. Save/unsave events
+ * land in LongAdders; every flush writes the generation retired by the previous flush (no writer can
+ * still hold it) and retires the current one. Counts in the database therefore lag by up to two
+ * flush intervals. Deltas pending at a crash are lost, so a reconcile at startup and then every
+ * reconcile interval recounts both columns from user_saved_products, dropping the pending deltas the
+ * recount already covers.
+ */
+@Component
+@Slf4j
+public class SavedProductCounters {
+
+    private final SavedCountRepository savedCountRepository;
+    private final ProductRepository productRepository;
+    private final SavedProductsWriteBehind savedProductsWriteBehind;
+    private final TransactionTemplate transactionTemplate;
+    private final int topSize;
+    private final Timer flushTimer;
+    private final Timer reconcileTimer;
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private volatile Deltas active = new Deltas();
+    private volatile Deltas retired = new Deltas();
+    private volatile List<Product> mostSaved = List.of();
+    private volatile boolean mostSavedStale = true;
+
+    private static final class Deltas {
+
+        private final ConcurrentHashMap<Long, LongAdder> products = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<Long, LongAdder> users = new ConcurrentHashMap<>();
+
+        void add(Long userId, Long productId, long delta) {
+            products.computeIfAbsent(productId, id -> new LongAdder()).add(delta);
+            users.computeIfAbsent(userId, id -> new LongAdder()).add(delta);
+        }
+
+        boolean isEmpty() {
+            return products.isEmpty() && users.isEmpty();
+        }
+
+        static Map<Long, Long> drain(ConcurrentHashMap<Long, LongAdder> counters) {
+            Map<Long, Long> deltas = new HashMap<>();
+            counters.forEach((id, counter) -> {
+                long delta = counter.sum();
+                if (delta != 0) {
+                    deltas.put(id, delta);
+                }
+            });
+            return deltas;
+        }
+
+        static long pending(ConcurrentHashMap<Long, LongAdder> counters, Long id) {
+            LongAdder counter = counters.get(id);
+            return counter == null ? 0 : counter.sum();
+        }
+    }
+
+    public SavedProductCounters(SavedCountRepository savedCountRepository,
+                                ProductRepository productRepository,
+                                SavedProductsWriteBehind savedProductsWriteBehind,
+                                TransactionTemplate transactionTemplate,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.counters.top-size}") int topSize) {
+        this.savedCountRepository = savedCountRepository;
+        this.productRepository = productRepository;
+        this.savedProductsWriteBehind = savedProductsWriteBehind;
+        this.transactionTemplate = transactionTemplate;
+        this.topSize = topSize;
+        this.flushTimer = Timer.builder("saved.counters.flush")
+                .description("Time to write pending save counters to the database")
+                .register(meterRegistry);
+        this.reconcileTimer = Timer.builder("saved.counters.reconcile")
+                .description("Time to recount save counters from user_saved_products")
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSavedProductChanged(SavedProductChangedEvent event) {
+        active.add(event.getUserId(), event.getProductId(), event.isSaved() ? 1 : -1);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        mostSavedStale = true;
+    }
+
+    public long getPendingUserDelta(Long userId) {
+        return Deltas.pending(active.users, userId) + Deltas.pending(retired.users, userId);
+    }
+
+    public List<Product> getMostSaved(int limit) {
+        List<Product> top = mostSaved;
+        return top.subList(0, Math.min(Math.max(limit, 0), top.size()));
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        refreshMostSaved();
+    }
+
+    @Scheduled(fixedDelayString = "${app.counters.flush-interval-ms}",
+            initialDelayString = "${app.counters.flush-interval-ms}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            Deltas draining = retired;
+            if (!draining.isEmpty()) {
+                flushTimer.record(() -> write(draining));
+                mostSavedStale = true;
+            }
+            retired = active;
+            active = new Deltas();
+
+            if (mostSavedStale) {
+                refreshMostSaved();
+            }
+        } catch (RuntimeException e) {
+            // the retired generation stays in place and is retried on the next flush
+            log.warn("Failed to flush saved-product counters", e);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.counters.reconcile-interval-ms}",
+            initialDelayString = "${app.counters.flush-interval-ms}")
+    public void reconcile() {
+        // journaled toggles have fired their events before their rows exist; write them out first so
+        // the recount covers every delta it is about to discard
+        savedProductsWriteBehind.flush();
+
+        flushLock.lock();
+        try {
+            // every event already applied to the table sits in one of these generations, so the recount
+            // replaces them; a writer still adding to one is adding a change the recount sees as well
+            retired = new Deltas();
+            active = new Deltas();
+            int[] corrected = reconcileTimer.record(() -> transactionTemplate.execute(status -> new int[]{
+                    savedCountRepository.reconcileProductCounts(),
+                    savedCountRepository.reconcileUserCounts()}));
+            if (corrected[0] > 0 || corrected[1] > 0) {
+                log.info("Reconciled saved counters: {} products and {} users corrected", corrected[0], corrected[1]);
+                mostSavedStale = true;
+            }
+        } catch (RuntimeException e) {
+            // the discarded deltas are only restored by the next successful reconcile
+            log.warn("Failed to reconcile saved-product counters", e);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void flushAll() {
+        flushLock.lock();
+        try {
+            write(retired);
+            write(active);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void write(Deltas deltas) {
+        Map<Long, Long> productDeltas = Deltas.drain(deltas.products);
+        Map<Long, Long> userDeltas = Deltas.drain(deltas.users);
+        transactionTemplate.executeWithoutResult(status -> {
+            savedCountRepository.addProductDeltas(productDeltas);
+            savedCountRepository.addUserDeltas(userDeltas);
+        });
+    }
+
+    private void refreshMostSaved() {
+        mostSavedStale = false;
+        mostSaved = List.copyOf(productRepository.findMostSaved(Limit.of(topSize)));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,68 @@
+package com.example.LibraryServer.cache;
+
+import com.example.LibraryServer.event.SavedProductChangedEvent;
+import com.example.LibraryServer.journal.SavedProductsWriteBehind;
+import com.example.LibraryServer.repository.UserSavedProductsRepository;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+@Component
+public class SavedProductsIndex {
+
+    private final UserSavedProductsRepository userSavedProductsRepository;
+    private final SavedProductsWriteBehind savedProductsWriteBehind;
+    private final AsyncCache<Long, LongHashSet> savedByUser;
+
+    public SavedProductsIndex(UserSavedProductsRepository userSavedProductsRepository,
+                              SavedProductsWriteBehind savedProductsWriteBehind,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.cache.saved-products.max-ids}") long maxIds,
+                              @Value("${app.cache.saved-products.ttl}") Duration ttl) {
+        this.userSavedProductsRepository = userSavedProductsRepository;
+        this.savedProductsWriteBehind = savedProductsWriteBehind;
+        this.savedByUser = Caffeine.newBuilder()
+                .maximumWeight(maxIds)
+                .weigher((Long userId, LongHashSet productIds) -> Math.max(1, productIds.size()))
+                .expireAfterAccess(ttl)
+                .executor(CacheLoads.LOADER)
+                .recordStats()
+                .buildAsync();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, savedByUser.synchronous(), "saved-products");
+    }
+
+    public boolean isSaved(Long userId, Long productId) {
+        return savedProductsOf(userId).contains(productId);
+    }
+
+    public List<Long> filterSaved(Long userId, Collection<Long> productIds) {
+        LongHashSet saved = savedProductsOf(userId);
+        return productIds.stream()
+                .distinct()
+                .filter(saved::contains)
+                .toList();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSavedProductChanged(SavedProductChangedEvent event) {
+        long productId = event.getProductId();
+        savedByUser.asMap().computeIfPresent(event.getUserId(), (userId, saved) -> saved.thenApply(productIds ->
+                event.isSaved() ? productIds.with(productId) : productIds.without(productId)));
+    }
+
+    private LongHashSet savedProductsOf(Long userId) {
+        return CacheLoads.join(savedByUser.get(userId, id -> LongHashSet.of(
+                savedProductsWriteBehind.savedProductIds(id, () ->
+                        userSavedProductsRepository.findProductIdsByUserId(id).stream()
+                                .mapToLong(Long::longValue)
+                                .toArray()))));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,68 @@
+package com.example.LibraryServer.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Concurrent callers asking for the same key share one load: the first runs it on its own thread and
+ * the rest park on its result. Nothing is kept once the load completes, so only duplicate work that
+ * overlaps in time is removed.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Counter executed;
+    private final Counter shared;
+
+    public SingleFlight(String name, MeterRegistry meterRegistry) {
+        this.executed = Counter.builder("singleflight.calls")
+                .tag("name", name)
+                .tag("result", "executed")
+                .description("Loads run by the first caller for a key")
+                .register(meterRegistry);
+        this.shared = Counter.builder("singleflight.calls")
+                .tag("name", name)
+                .tag("result", "shared")
+                .description("Callers served by a load already in flight")
+                .register(meterRegistry);
+        Gauge.builder("singleflight.shared.ratio", this, SingleFlight::sharedRatio)
+                .tag("name", name)
+                .description("Share of callers that did not run a load of their own")
+                .register(meterRegistry);
+    }
+
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            shared.increment();
+            return CacheLoads.join(existing);
+        }
+
+        executed.increment();
+        try {
+            V value = loader.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    // callers arriving after a write must not share a load that may have read before it
+    public void forget(K key) {
+        inFlight.remove(key);
+    }
+
+    private double sharedRatio() {
+        double total = executed.count() + shared.count();
+        return total == 0 ? 0 : shared.count() / total;
+    }
+}
\ No newline at end of file
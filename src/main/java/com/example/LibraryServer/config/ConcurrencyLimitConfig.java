@@ -0,0 +1,33 @@
+package com.example.LibraryServer.config;
+
+import com.example.LibraryServer.limiter.ConcurrencyLimitInterceptor;
+import com.example.LibraryServer.limiter.ConcurrencyLimiter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(name = "app.limiter.enabled", havingValue = "true")
+public class ConcurrencyLimitConfig implements WebMvcConfigurer {
+
+    private final ConcurrencyLimitInterceptor interceptor;
+
+    public ConcurrencyLimitConfig(ConcurrencyLimiter concurrencyLimiter, ObjectMapper objectMapper,
+                                  @Value("${app.limiter.retry-after}") Duration retryAfter) {
+        this.interceptor = new ConcurrencyLimitInterceptor(concurrencyLimiter, objectMapper,
+                Math.max(1, retryAfter.toSeconds()));
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // register and login spend their time in BCrypt, which has its own bounded pool and answers 429
+        // when full; their latency says nothing about the database and would drag the gradient down
+        registry.addInterceptor(interceptor)
+                .addPathPatterns("/api/**")
+                .excludePathPatterns("/api/users/register", "/api/users/login");
+    }
+}
\ No newline at end of file
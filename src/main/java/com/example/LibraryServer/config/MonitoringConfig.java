@@ -0,0 +1,22 @@
+package com.example.LibraryServer.config;
+
+import com.example.LibraryServer.datasource.InstrumentedDataSourcePostProcessor;
+import com.example.LibraryServer.monitoring.EntityLoadInterceptor;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MonitoringConfig {
+
+    @Bean
+    public static InstrumentedDataSourcePostProcessor instrumentedDataSourcePostProcessor() {
+        return new InstrumentedDataSourcePostProcessor();
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer entityLoadInterceptor() {
+        return properties -> properties.put(AvailableSettings.INTERCEPTOR, new EntityLoadInterceptor());
+    }
+}
\ No newline at end of file
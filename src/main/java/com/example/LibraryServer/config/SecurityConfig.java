@@ -1,33 +1,70 @@
 package com.example.LibraryServer.config;
 
+import com.example.LibraryServer.security.TokenAuthentication;
+import com.example.LibraryServer.security.TokenAuthenticationFilter;
+import com.example.LibraryServer.security.TokenBlocklist;
+import com.example.LibraryServer.security.TokenService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, TokenService tokenService,
+                                                   TokenBlocklist blocklist,
+                                                   @Value("${app.security.token.required}") boolean tokenRequired)
+            throws Exception {
         http
                 .csrf(csrf -> csrf.disable())
-                .authorizeHttpRequests(authz -> authz
-                        .requestMatchers("/api/**").permitAll()
-                        .anyRequest().authenticated()
-                )
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .addFilterBefore(new TokenAuthenticationFilter(tokenService, blocklist),
+                        UsernamePasswordAuthenticationFilter.class)
+                .authorizeHttpRequests(authz -> {
+                    authz
+                            .requestMatchers("/api/users/login", "/api/users/register",
+                                    "/api/users/token/refresh").permitAll()
+                            .requestMatchers("/api/users/me", "/api/users/logout").authenticated();
+                    if (tokenRequired) {
+                        authz.requestMatchers("/api/users/{userId}/**").access(tokenOwner());
+                    }
+                    authz
+                            .requestMatchers("/api/**").permitAll()
+                            .requestMatchers(EndpointRequest.toAnyEndpoint()).permitAll()
+                            .anyRequest().authenticated();
+                })
+                .exceptionHandling(exceptions -> exceptions
+                        .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
                 .formLogin(form -> form.disable())
                 .httpBasic(basic -> basic.disable());
 
         return http.build();
     }
 
+    // /api/users/{userId}/** only for a token issued to that user
+    private static AuthorizationManager<RequestAuthorizationContext> tokenOwner() {
+        return (authentication, context) -> new AuthorizationDecision(
+                authentication.get() instanceof TokenAuthentication token
+                        && token.getName().equals(context.getVariables().get("userId")));
+    }
+
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${app.security.bcrypt.strength}") int strength) {
+        return new BCryptPasswordEncoder(strength);
     }
 }
\ No newline at end of file
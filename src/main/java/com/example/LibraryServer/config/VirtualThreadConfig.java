@@ -0,0 +1,23 @@
+package com.example.LibraryServer.config;
+
+import com.example.LibraryServer.datasource.BoundedDataSourcePostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean
+    public static BoundedDataSourcePostProcessor boundedDataSourcePostProcessor(Environment environment) {
+        int maxConcurrent = environment.getProperty("app.datasource.max-concurrent-connections", Integer.class,
+                environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10));
+        Duration acquireTimeout = environment.getProperty("app.datasource.acquire-timeout", Duration.class,
+                Duration.ofSeconds(5));
+
+        return new BoundedDataSourcePostProcessor(maxConcurrent, acquireTimeout);
+    }
+}
\ No newline at end of file
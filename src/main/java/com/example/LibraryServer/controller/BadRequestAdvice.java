@@ -0,0 +1,19 @@
+package com.example.LibraryServer.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import java.util.Map;
+
+/**
+ * Services reject invalid input (a malformed cursor, an email already taken, an unsaved product) with
+ * IllegalArgumentException; every handler answers it the same way, with 400 and the message.
+ */
+@RestControllerAdvice
+public class BadRequestAdvice {
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> badRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+}
\ No newline at end of file
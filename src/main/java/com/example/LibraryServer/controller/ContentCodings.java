@@ -0,0 +1,79 @@
+package com.example.LibraryServer.controller;
+
+import java.util.Locale;
+
+/**
+ * Picks gzip or identity for a request's Accept-Encoding header, honouring q-values: "gzip;q=0"
+ * refuses gzip, "identity;q=0" (or "*;q=0" without an identity entry) refuses an unencoded body,
+ * and otherwise the higher q wins, gzip on a tie.
+ */
+final class ContentCodings {
+
+    static final String GZIP = "gzip";
+    static final String IDENTITY = "identity";
+
+    // the smallest q-value the grammar allows
+    private static final double MIN_QUALITY = 0.001;
+
+    private ContentCodings() {
+    }
+
+    /**
+     * @return GZIP, IDENTITY, or null when the header accepts neither
+     */
+    static String negotiate(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return IDENTITY;
+        }
+
+        double gzip = -1;
+        double identity = -1;
+        double any = -1;
+        for (String entry : acceptEncoding.split(",")) {
+            String[] parts = entry.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            if (coding.isEmpty()) {
+                continue;
+            }
+
+            double q = quality(parts);
+            switch (coding) {
+                case "gzip", "x-gzip" -> gzip = Math.max(gzip, q);
+                case "identity" -> identity = Math.max(identity, q);
+                case "*" -> any = Math.max(any, q);
+                default -> {
+                }
+            }
+        }
+
+        // an unlisted coding takes the q of "*"; identity is acceptable unless excluded, but an
+        // implicit identity loses to any coding the client did list
+        if (gzip < 0) {
+            gzip = Math.max(any, 0);
+        }
+        if (identity < 0) {
+            identity = any < 0 ? MIN_QUALITY : any;
+        }
+
+        if (gzip > 0 && gzip >= identity) {
+            return GZIP;
+        }
+        return identity > 0 ? IDENTITY : null;
+    }
+
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.length() > 2 && (parameter.charAt(0) == 'q' || parameter.charAt(0) == 'Q')
+                    && parameter.charAt(1) == '=') {
+                try {
+                    double q = Double.parseDouble(parameter.substring(2).trim());
+                    return q >= 0 && q <= 1 ? q : 0;
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
\ No newline at end of file
@@ -1,56 +1,338 @@
 package com.example.LibraryServer.controller;
 
+import com.example.LibraryServer.cache.CatalogSnapshot;
+import com.example.LibraryServer.cache.CatalogSnapshots;
+import com.example.LibraryServer.cache.ProductCache;
+import com.example.LibraryServer.dto.MostSavedProductDTO;
 import com.example.LibraryServer.dto.ProductDTO;
+import com.example.LibraryServer.dto.ProductFilter;
+import com.example.LibraryServer.dto.ProductPageDTO;
+import com.example.LibraryServer.dto.ProductSearchResultDTO;
+import com.example.LibraryServer.limiter.Priority;
+import com.example.LibraryServer.limiter.RequestPriority;
+import com.example.LibraryServer.mapper.DtoMapper;
 import com.example.LibraryServer.model.Product;
+import com.example.LibraryServer.repository.CatalogVersion;
+import com.example.LibraryServer.service.ProductImportResult;
+import com.example.LibraryServer.service.ProductImportService;
+import com.example.LibraryServer.service.ProductPage;
+import com.example.LibraryServer.service.ProductSearchResult;
+import com.example.LibraryServer.service.ProductSearchService;
 import com.example.LibraryServer.service.ProductService;
-import lombok.RequiredArgsConstructor;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/products")
-@RequiredArgsConstructor
 public class ProductController {
 
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv");
+    private static final int EXPORT_FLUSH_INTERVAL = 500;
+
     private final ProductService productService;
+    private final ProductSearchService productSearchService;
+    private final ProductImportService productImportService;
+    private final ObjectMapper objectMapper;
+    private final ProductCache productCache;
+    private final CatalogSnapshots catalogSnapshots;
+    private final CacheControl catalogCacheControl;
+
+    public ProductController(ProductService productService,
+                             ProductSearchService productSearchService,
+                             ProductImportService productImportService,
+                             ObjectMapper objectMapper,
+                             ProductCache productCache,
+                             CatalogSnapshots catalogSnapshots,
+                             @Value("${app.http.catalog.max-age}") Duration catalogMaxAge) {
+        this.productService = productService;
+        this.productSearchService = productSearchService;
+        this.productImportService = productImportService;
+        this.objectMapper = objectMapper;
+        this.productCache = productCache;
+        this.catalogSnapshots = catalogSnapshots;
+        this.catalogCacheControl = CacheControl.maxAge(catalogMaxAge).mustRevalidate();
+    }
 
+    @RequestPriority(Priority.HEAVY)
     @GetMapping
-    public ResponseEntity<List<ProductDTO>> getAllProducts() {
-        List<Product> products = productService.getAllProducts();
-        List<ProductDTO> productDTOs = products.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(productDTOs);
+    public ResponseEntity<byte[]> getAllProducts(ServletWebRequest request) throws IOException {
+        CatalogSnapshot snapshot = catalogSnapshots.getAll();
+        if (snapshot != null) {
+            writeSnapshot(snapshot, request);
+            return null;
+        }
+
+        // the version is read before the body, so a body is never older than its ETag
+        String eTag = productService.getCatalogVersion().eTag("all");
+        if (request.checkNotModified(eTag)) {
+            return notModified(eTag);
+        }
+
+        byte[] body = productCache.getResponse("all", () -> {
+            List<Product> products = productService.getAllProducts();
+            List<ProductDTO> productDTOs = products.stream()
+                    .map(DtoMapper::toProductDTO)
+                    .collect(Collectors.toList());
+            return toJson(productDTOs);
+        });
+        return jsonResponse(body, eTag);
     }
 
+    @RequestPriority(Priority.CHEAP)
     @GetMapping("/{id}")
-    public ResponseEntity<ProductDTO> getProductById(@PathVariable Long id) {
+    public ResponseEntity<ProductDTO> getProductById(@PathVariable Long id, WebRequest request) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            Optional<String> eTag = productService.getProductVersion(id).map(version -> productETag(id, version));
+            if (eTag.isPresent() && request.checkNotModified(eTag.get())) {
+                return notModified(eTag.get());
+            }
+        }
+
         return productService.getProductById(id)
-                .map(this::convertToDTO)
-                .map(ResponseEntity::ok)
+                .map(product -> {
+                    ResponseEntity.BodyBuilder response = ResponseEntity.ok().cacheControl(catalogCacheControl);
+                    if (product.getUpdatedAt() != null) {
+                        response.eTag(productETag(id, product.getUpdatedAt()));
+                    }
+                    return response.body(DtoMapper.toProductDTO(product));
+                })
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @RequestPriority(Priority.HEAVY)
     @GetMapping("/available")
-    public ResponseEntity<List<ProductDTO>> getAvailableProducts() {
-        List<Product> products = productService.getAvailableProducts();
-        List<ProductDTO> productDTOs = products.stream()
-                .map(this::convertToDTO)
+    public ResponseEntity<byte[]> getAvailableProducts(ServletWebRequest request) throws IOException {
+        CatalogSnapshot snapshot = catalogSnapshots.getAvailable();
+        if (snapshot != null) {
+            writeSnapshot(snapshot, request);
+            return null;
+        }
+
+        String eTag = productService.getCatalogVersion().eTag("available");
+        if (request.checkNotModified(eTag)) {
+            return notModified(eTag);
+        }
+
+        byte[] body = productCache.getResponse("available", () -> {
+            List<Product> products = productService.getAvailableProducts();
+            List<ProductDTO> productDTOs = products.stream()
+                    .map(DtoMapper::toProductDTO)
+                    .collect(Collectors.toList());
+            return toJson(productDTOs);
+        });
+        return jsonResponse(body, eTag);
+    }
+
+    @RequestPriority(Priority.CHEAP)
+    @GetMapping("/most-saved")
+    public ResponseEntity<List<MostSavedProductDTO>> getMostSavedProducts(
+            @RequestParam(defaultValue = "20") int limit) {
+
+        List<MostSavedProductDTO> response = productService.getMostSavedProducts(limit).stream()
+                .map(product -> MostSavedProductDTO.builder()
+                        .product(DtoMapper.toProductDTO(product))
+                        .savedCount(product.getSavedCount())
+                        .build())
                 .collect(Collectors.toList());
-        return ResponseEntity.ok(productDTOs);
-    }
-
-    private ProductDTO convertToDTO(Product product) {
-        return ProductDTO.builder()
-                .id(product.getId())
-                .name(product.getName())
-                .description(product.getDescription())
-                .price(product.getPrice())
-                .category(product.getCategory())
-                .imageUrl(product.getImageUrl())
-                .isAvailable(product.getIsAvailable())
+
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/page")
+    public ResponseEntity<?> getProductPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) Boolean available,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(defaultValue = "id") String sort) {
+
+        ProductFilter filter = ProductFilter.builder()
+                .category(category)
+                .available(available)
+                .minPrice(minPrice)
+                .maxPrice(maxPrice)
+                .sort(ProductFilter.SortOrder.valueOf(sort.toUpperCase(Locale.ROOT)))
+                .build();
+
+        String cacheKey = String.join("|", "page", filter.getSort().name(), filter.getCategory(),
+                String.valueOf(filter.getAvailable()), String.valueOf(filter.getMinPrice()),
+                String.valueOf(filter.getMaxPrice()), cursor, String.valueOf(size));
+
+        byte[] body = productCache.getResponse(cacheKey, () -> {
+            ProductPage page = productService.getProductPage(filter, cursor, size);
+
+            ProductPageDTO response = ProductPageDTO.builder()
+                    .items(page.getProducts().stream()
+                            .map(DtoMapper::toProductDTO)
+                            .collect(Collectors.toList()))
+                    .nextCursor(page.getNextCursor())
+                    .hasMore(page.hasMore())
+                    .build();
+
+            return toJson(response);
+        });
+
+        return jsonResponse(body);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<?> searchProducts(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+
+        ProductSearchResult result = productSearchService.search(query, page, size);
+
+        ProductSearchResultDTO response = ProductSearchResultDTO.builder()
+                .query(query)
+                .page(Math.max(0, page))
+                .size(Math.max(1, Math.min(size, ProductSearchService.MAX_PAGE_SIZE)))
+                .total(result.getTotal())
+                .source(result.getSource().name().toLowerCase(Locale.ROOT))
+                .items(result.getProducts().stream()
+                        .map(DtoMapper::toProductDTO)
+                        .collect(Collectors.toList()))
                 .build();
+
+        return ResponseEntity.ok(response);
+    }
+
+    @RequestPriority(Priority.HEAVY)
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportProducts() {
+        ObjectWriter writer = objectMapper.writerFor(ProductDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.setRootValueSeparator(null);
+
+                long[] written = {0};
+                productService.exportProducts(product -> {
+                    try {
+                        writer.writeValue(generator, DtoMapper.toProductDTO(product));
+                        generator.writeRaw('\n');
+                        if (++written[0] % EXPORT_FLUSH_INTERVAL == 1) {
+                            generator.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(NDJSON)
+                .body(body);
+    }
+
+    @RequestPriority(Priority.HEAVY)
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_JSON_VALUE, "application/x-ndjson"})
+    public ResponseEntity<?> importProducts(HttpServletRequest request) throws IOException {
+        try {
+            MediaType contentType = MediaType.parseMediaType(request.getContentType());
+            ProductImportResult result = contentType.isCompatibleWith(CSV)
+                    ? productImportService.importCsv(request.getInputStream())
+                    : productImportService.importJson(request.getInputStream());
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("imported", result.getImported());
+            response.put("skipped", result.getSkipped());
+            response.put("errors", result.getErrors());
+            response.put("durationMs", result.getDurationMs());
+
+            return ResponseEntity.ok(response);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(403).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    private byte[] toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private ResponseEntity<byte[]> jsonResponse(byte[] body) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    private ResponseEntity<byte[]> jsonResponse(byte[] body, String eTag) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(eTag)
+                .cacheControl(catalogCacheControl)
+                .body(body);
+    }
+
+    // writes the prebuilt bytes straight to the servlet stream; nothing is allocated per request
+    private void writeSnapshot(CatalogSnapshot snapshot, ServletWebRequest request) throws IOException {
+        HttpServletResponse response = request.getResponse();
+        response.setHeader(HttpHeaders.CACHE_CONTROL, catalogCacheControl.getHeaderValue());
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        String coding = ContentCodings.negotiate(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        if (coding == null) {
+            response.setStatus(HttpStatus.NOT_ACCEPTABLE.value());
+            return;
+        }
+
+        // each encoding is its own representation, so each gets its own strong ETag
+        boolean gzipped = coding.equals(ContentCodings.GZIP);
+        String eTag = snapshot.getETag(gzipped);
+        if (request.checkNotModified(eTag)) {
+            return;
+        }
+
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setHeader(HttpHeaders.ETAG, eTag);
+        if (gzipped) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setContentLength(snapshot.getLength(gzipped));
+        snapshot.writeTo(response.getOutputStream(), gzipped);
+    }
+
+    private <T> ResponseEntity<T> notModified(String eTag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(eTag)
+                .cacheControl(catalogCacheControl)
+                .build();
+    }
+
+    private static String productETag(Long id, LocalDateTime updatedAt) {
+        return "\"p" + id + "-" + Long.toHexString(CatalogVersion.epochMicros(updatedAt)) + "\"";
     }
 }
\ No newline at end of file
@@ -0,0 +1,33 @@
+package com.example.LibraryServer.controller;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * A request that could not get a database connection is answered with 503 and Retry-After rather
+ * than a 500: the client can retry, and the concurrency limiter still sees the exception and backs off.
+ */
+@RestControllerAdvice
+public class ServiceUnavailableAdvice {
+
+    private final String retryAfterSeconds;
+
+    public ServiceUnavailableAdvice(@Value("${app.limiter.retry-after}") Duration retryAfter) {
+        this.retryAfterSeconds = String.valueOf(Math.max(1, retryAfter.toSeconds()));
+    }
+
+    @ExceptionHandler({CannotCreateTransactionException.class, DataAccessResourceFailureException.class})
+    public ResponseEntity<Map<String, String>> databaseUnavailable(RuntimeException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds)
+                .body(Map.of("error", "Database is unavailable, try again later"));
+    }
+}
\ No newline at end of file
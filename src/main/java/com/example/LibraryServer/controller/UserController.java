@@ -2,17 +2,37 @@ package com.example.LibraryServer.controller;
 
 import com.example.LibraryServer.dto.AuthRequest;
 import com.example.LibraryServer.dto.ProductDTO;
+import com.example.LibraryServer.dto.RefreshTokenRequest;
+import com.example.LibraryServer.dto.SavedProductDTO;
+import com.example.LibraryServer.dto.SavedProductsBatchRequest;
+import com.example.LibraryServer.dto.SavedProductsFeedDTO;
+import com.example.LibraryServer.dto.SavedStatusRequest;
 import com.example.LibraryServer.dto.UserDTO;
+import com.example.LibraryServer.limiter.Priority;
+import com.example.LibraryServer.limiter.RequestPriority;
+import com.example.LibraryServer.mapper.DtoMapper;
 import com.example.LibraryServer.model.Product;
 import com.example.LibraryServer.model.User;
+import com.example.LibraryServer.repository.SavedProductsBatchResult;
+import com.example.LibraryServer.security.TokenAuthentication;
+import com.example.LibraryServer.security.TokenBlocklist;
+import com.example.LibraryServer.security.TokenClaims;
+import com.example.LibraryServer.security.TokenService;
+import com.example.LibraryServer.security.TokenType;
+import com.example.LibraryServer.service.PasswordHashingRejectedException;
+import com.example.LibraryServer.service.SavedProductsFeed;
+import com.example.LibraryServer.service.UserProfile;
 import com.example.LibraryServer.service.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @RestController
@@ -21,11 +41,14 @@ import java.util.stream.Collectors;
 public class UserController {
 
     private final UserService userService;
+    private final TokenService tokenService;
+    private final TokenBlocklist tokenBlocklist;
 
+    @RequestPriority(Priority.CHEAP)
     @GetMapping("/{id}")
     public ResponseEntity<UserDTO> getUserById(@PathVariable Long id) {
         return userService.getUserById(id)
-                .map(this::convertToDTO)
+                .map(DtoMapper::toUserDTO)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -41,31 +64,65 @@ public class UserController {
                     .password(request.getPassword())
                     .build();
 
-            User savedUser = userService.registerUser(user);
+            UserProfile savedUser = userService.registerUser(user);
 
             Map<String, Object> response = new HashMap<>();
             response.put("message", "Registration successful");
-            response.put("user", convertToDTO(savedUser));
+            response.put("user", DtoMapper.toUserDTO(savedUser));
 
             return ResponseEntity.ok(response);
-        } catch (RuntimeException e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("error", e.getMessage());
-            return ResponseEntity.badRequest().body(error);
+        } catch (PasswordHashingRejectedException e) {
+            return tooManyRequests(e);
         }
     }
 
     @PostMapping("/login")
     public ResponseEntity<?> login(@Valid @RequestBody AuthRequest request) {
-        return userService.login(request.getEmail(), request.getPassword())
-                .map(user -> {
-                    Map<String, Object> response = new HashMap<>();
-                    response.put("message", "Login successful");
-                    response.put("user", convertToDTO(user));
-                    return ResponseEntity.ok(response);
-                })
-                .orElse(ResponseEntity.status(401).body(
-                        Map.of("error", "Invalid email or password")));
+        try {
+            return userService.login(request.getEmail(), request.getPassword())
+                    .map(user -> {
+                        Map<String, Object> response = new HashMap<>();
+                        response.put("message", "Login successful");
+                        response.put("user", DtoMapper.toUserDTO(user));
+                        response.put("token", DtoMapper.toTokenDTO(tokenService.issue(user.getId())));
+                        return ResponseEntity.ok(response);
+                    })
+                    .orElse(ResponseEntity.status(401).body(
+                            Map.of("error", "Invalid email or password")));
+        } catch (PasswordHashingRejectedException e) {
+            return tooManyRequests(e);
+        }
+    }
+
+    @PostMapping("/token/refresh")
+    public ResponseEntity<?> refreshToken(@Valid @RequestBody RefreshTokenRequest request) {
+        // refresh tokens are single use: of concurrent requests replaying one, only the first revokes it
+        Optional<TokenClaims> claims = tokenService.verify(request.getRefreshToken(), TokenType.REFRESH)
+                .filter(tokenBlocklist::revokeIfFirst);
+        if (claims.isEmpty()) {
+            return ResponseEntity.status(401).body(Map.of("error", "Invalid or expired refresh token"));
+        }
+
+        return ResponseEntity.ok(DtoMapper.toTokenDTO(tokenService.issue(claims.get().userId())));
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(TokenAuthentication authentication,
+                                    @RequestBody(required = false) RefreshTokenRequest request) {
+        tokenBlocklist.revoke(authentication.getClaims());
+        if (request != null && request.getRefreshToken() != null) {
+            tokenService.verify(request.getRefreshToken(), TokenType.REFRESH)
+                    .filter(refresh -> refresh.userId() == authentication.getUserId())
+                    .ifPresent(tokenBlocklist::revoke);
+        }
+
+        return ResponseEntity.ok(Map.of("message", "Logged out"));
+    }
+
+    @RequestPriority(Priority.CHEAP)
+    @GetMapping("/me")
+    public ResponseEntity<UserDTO> getCurrentUser(TokenAuthentication authentication) {
+        return getUserById(authentication.getUserId());
     }
 
     @PostMapping("/{userId}/saved/{productId}")
@@ -75,103 +132,112 @@ public class UserController {
             @RequestParam(defaultValue = "true") boolean saveProduct) {
 
         try {
-            boolean alreadyExists = userService.isUserSavedProduct(userId, productId);
-
-            if (saveProduct && alreadyExists) {
-                return userService.getUserById(userId)
-                        .map(this::convertToDTO)
-                        .map(ResponseEntity::ok)
-                        .orElse(ResponseEntity.badRequest().build());
-            }
-
-            if (!saveProduct && !alreadyExists) {
-                return ResponseEntity.badRequest()
-                        .body(Map.of("error", "User does not have this product saved"));
-            }
-
-            User updatedUser;
-            if (saveProduct) {
-                updatedUser = userService.saveProduct(userId, productId);
-            } else {
-                updatedUser = userService.removeSavedProduct(userId, productId);
-            }
-
-            return ResponseEntity.ok(convertToDTO(updatedUser));
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            UserProfile profile = saveProduct
+                    ? userService.saveProduct(userId, productId)
+                    : userService.removeSavedProduct(userId, productId);
+
+            return ResponseEntity.ok(DtoMapper.toUserDTO(profile));
+        } catch (DataIntegrityViolationException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "User or product not found"));
         }
     }
 
-    @GetMapping("/{userId}/saved")
-    public ResponseEntity<?> getSavedProducts(@PathVariable Long userId) {
+    @PostMapping("/{userId}/saved/batch")
+    public ResponseEntity<?> applySavedProductOperations(
+            @PathVariable Long userId,
+            @Valid @RequestBody SavedProductsBatchRequest request) {
+
         try {
-            List<Product> savedProducts = userService.getSavedProducts(userId);
-            return ResponseEntity.ok(savedProducts);
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            SavedProductsBatchResult result =
+                    userService.applySavedProductOperations(userId, request.getOperations());
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("userId", userId);
+            response.put("added", result.getAddedProductIds());
+            response.put("removed", result.getRemovedProductIds());
+            response.put("savedProductsCount", result.getSavedProductsCount());
+
+            return ResponseEntity.ok(response);
+        } catch (DataIntegrityViolationException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "User not found"));
         }
     }
 
+    @RequestPriority(Priority.HEAVY)
+    @GetMapping("/{userId}/saved")
+    public ResponseEntity<?> getSavedProducts(@PathVariable Long userId) {
+        List<Product> savedProducts = userService.getSavedProducts(userId);
+        return ResponseEntity.ok(savedProducts);
+    }
+
+    @GetMapping("/{userId}/saved/feed")
+    public ResponseEntity<?> getSavedProductsFeed(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+
+        SavedProductsFeed feed = userService.getSavedProductsFeed(userId, cursor, size);
+
+        SavedProductsFeedDTO response = SavedProductsFeedDTO.builder()
+                .items(feed.getItems().stream()
+                        .map(item -> SavedProductDTO.builder()
+                                .product(DtoMapper.toProductDTO(item.getProduct()))
+                                .savedAt(item.getSavedAt())
+                                .build())
+                        .collect(Collectors.toList()))
+                .nextCursor(feed.getNextCursor())
+                .hasMore(feed.hasMore())
+                .build();
+
+        return ResponseEntity.ok(response);
+    }
+
+    @RequestPriority(Priority.CHEAP)
     @GetMapping("/{userId}/saved/{productId}/status")
     public ResponseEntity<?> getSavedStatus(
             @PathVariable Long userId,
             @PathVariable Long productId) {
 
-        try {
-            boolean isSaved = userService.isUserSavedProduct(userId, productId);
+        boolean isSaved = userService.isUserSavedProduct(userId, productId);
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("userId", userId);
-            response.put("productId", productId);
-            response.put("isSaved", isSaved);
+        Map<String, Object> response = new HashMap<>();
+        response.put("userId", userId);
+        response.put("productId", productId);
+        response.put("isSaved", isSaved);
 
-            return ResponseEntity.ok(response);
+        return ResponseEntity.ok(response);
+    }
 
-        } catch (RuntimeException e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("error", e.getMessage());
-            return ResponseEntity.badRequest().body(error);
-        }
+    @RequestPriority(Priority.CHEAP)
+    @PostMapping("/{userId}/saved/status")
+    public ResponseEntity<?> getSavedStatuses(
+            @PathVariable Long userId,
+            @Valid @RequestBody SavedStatusRequest request) {
+
+        List<Long> savedProductIds = userService.filterSavedProducts(userId, request.getProductIds());
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("userId", userId);
+        response.put("savedProductIds", savedProductIds);
+
+        return ResponseEntity.ok(response);
     }
 
-    private UserDTO convertToDTO(User user) {
-        return UserDTO.builder()
-                .id(user.getId())
-                .username(user.getUsername())
-                .name(user.getName())
-                .email(user.getEmail())
-                .phone(user.getPhone())
-                .savedProducts(user.getSavedProducts())
-                .savedProductsCount(user.getSavedProducts().size())
-                .build();
+    private ResponseEntity<?> tooManyRequests(PasswordHashingRejectedException e) {
+        return ResponseEntity.status(429)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("error", e.getMessage()));
     }
 
+    @RequestPriority(Priority.HEAVY)
     @GetMapping("/{userId}/saved-products")
     public ResponseEntity<?> getSavedProductsForProfile(@PathVariable Long userId) {
-        try {
-            List<Product> savedProducts = userService.getSavedProducts(userId);
+        List<Product> savedProducts = userService.getSavedProducts(userId);
 
-            List<ProductDTO> productDTOs = savedProducts.stream()
-                    .map(this::convertProductToDTO)
-                    .collect(Collectors.toList());
+        List<ProductDTO> productDTOs = savedProducts.stream()
+                .map(DtoMapper::toProductDTO)
+                .collect(Collectors.toList());
 
-            return ResponseEntity.ok(productDTOs);
-        } catch (RuntimeException e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("error", e.getMessage());
-            return ResponseEntity.badRequest().body(error);
-        }
-    }
-
-    private ProductDTO convertProductToDTO(Product product) {
-        return ProductDTO.builder()
-                .id(product.getId())
-                .name(product.getName())
-                .description(product.getDescription())
-                .price(product.getPrice())
-                .category(product.getCategory())
-                .imageUrl(product.getImageUrl())
-                .isAvailable(product.getIsAvailable())
-                .build();
+        return ResponseEntity.ok(productDTOs);
     }
 }
\ No newline at end of file
@@ -0,0 +1,50 @@
+package com.example.LibraryServer.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class BoundedDataSourcePostProcessor implements BeanPostProcessor, MeterBinder, Ordered {
+
+    private final int maxConcurrentConnections;
+    private final Duration acquireTimeout;
+    private final List<BoundedDataSource> dataSources = new CopyOnWriteArrayList<>();
+
+    public BoundedDataSourcePostProcessor(int maxConcurrentConnections, Duration acquireTimeout) {
+        this.maxConcurrentConnections = maxConcurrentConnections;
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource dataSource) || bean instanceof BoundedDataSource) {
+            return bean;
+        }
+
+        BoundedDataSource bounded = new BoundedDataSource(dataSource, maxConcurrentConnections, acquireTimeout);
+        dataSources.add(bounded);
+        return bounded;
+    }
+
+    // wraps the pool directly; InstrumentedDataSource goes on top of it
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (BoundedDataSource dataSource : dataSources) {
+            Gauge.builder("db.connection.permits.available", dataSource, BoundedDataSource::getAvailablePermits)
+                    .register(registry);
+            Gauge.builder("db.connection.permits.waiting", dataSource, BoundedDataSource::getQueueLength)
+                    .register(registry);
+        }
+    }
+}
\ No newline at end of file
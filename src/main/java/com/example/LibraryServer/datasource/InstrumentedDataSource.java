@@ -0,0 +1,109 @@
+package com.example.LibraryServer.datasource;
+
+import com.example.LibraryServer.monitoring.RequestProfile;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Feeds the current {@link RequestProfile}: connection wait, statements with their SQL and duration,
+ * and result set rows. Connections taken outside a profiled request are returned unwrapped.
+ */
+public class InstrumentedDataSource extends DelegatingDataSource {
+
+    public InstrumentedDataSource(DataSource target) {
+        super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        RequestProfile profile = RequestProfile.current();
+        if (profile == null) {
+            return super.getConnection();
+        }
+
+        long startedAt = System.nanoTime();
+        Connection connection = super.getConnection();
+        profile.recordConnection(System.nanoTime() - startedAt);
+        return instrument(connection, profile);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        RequestProfile profile = RequestProfile.current();
+        if (profile == null) {
+            return super.getConnection(username, password);
+        }
+
+        long startedAt = System.nanoTime();
+        Connection connection = super.getConnection(username, password);
+        profile.recordConnection(System.nanoTime() - startedAt);
+        return instrument(connection, profile);
+    }
+
+    private static Connection instrument(Connection target, RequestProfile profile) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            Object result = invoke(target, method, args);
+            if (result instanceof Statement statement && Statement.class.isAssignableFrom(method.getReturnType())) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+                return instrument(statement, method.getReturnType(), sql, profile);
+            }
+            return result;
+        };
+
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, handler);
+    }
+
+    private static Object instrument(Statement target, Class<?> type, String preparedSql, RequestProfile profile) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            String name = method.getName();
+            if (name.startsWith("execute")) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : preparedSql;
+                long startedAt = System.nanoTime();
+                try {
+                    Object result = invoke(target, method, args);
+                    return result instanceof ResultSet resultSet ? instrument(resultSet, profile) : result;
+                } finally {
+                    profile.recordStatement(sql, System.nanoTime() - startedAt);
+                }
+            }
+
+            Object result = invoke(target, method, args);
+            if (name.equals("getResultSet") && result instanceof ResultSet resultSet) {
+                return instrument(resultSet, profile);
+            }
+            return result;
+        };
+
+        return Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static ResultSet instrument(ResultSet target, RequestProfile profile) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            Object result = invoke(target, method, args);
+            if (result == Boolean.TRUE && method.getName().equals("next")) {
+                profile.recordRow();
+            }
+            return result;
+        };
+
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+                new Class<?>[]{ResultSet.class}, handler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.example.LibraryServer.datasource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+import javax.sql.DataSource;
+
+public class InstrumentedDataSourcePostProcessor implements BeanPostProcessor, Ordered {
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource dataSource) || bean instanceof InstrumentedDataSource) {
+            return bean;
+        }
+        return new InstrumentedDataSource(dataSource);
+    }
+
+    // applied last, so connection wait includes time queued in BoundedDataSource
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,103 @@
+package com.example.LibraryServer.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+
+/**
+ * Read-your-writes stickiness for replica routing. A request that commits a write pins the user it
+ * acted on (the {userId}/{id} path variable, else the token's user) to the primary for the sticky
+ * window; writes from requests without a user, such as registration or catalog imports, pin all
+ * reads. Within the writing request itself every later read also goes to the primary, including
+ * cache loads it starts on loader threads.
+ */
+public class ReadYourWrites {
+
+    private static final ThreadLocal<RequestState> CURRENT = new ThreadLocal<>();
+
+    private final Cache<Long, Boolean> stickyUsers;
+    private final long windowNanos;
+    private volatile long globalStickyUntil;
+
+    private static final class RequestState {
+
+        private final Long userId;
+        private final boolean sticky;
+        private boolean wrote;
+
+        private RequestState(Long userId, boolean sticky) {
+            this.userId = userId;
+            this.sticky = sticky;
+        }
+    }
+
+    public ReadYourWrites(Duration window) {
+        this.windowNanos = window.toNanos();
+        this.globalStickyUntil = System.nanoTime();
+        this.stickyUsers = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(100_000)
+                .build();
+    }
+
+    void beginRequest(Long userId) {
+        boolean sticky = userId != null && stickyUsers.getIfPresent(userId) != null;
+        CURRENT.set(new RequestState(userId, sticky));
+    }
+
+    void endRequest() {
+        RequestState state = CURRENT.get();
+        CURRENT.remove();
+        if (state == null || !state.wrote) {
+            return;
+        }
+
+        if (state.userId != null) {
+            stickyUsers.put(state.userId, Boolean.TRUE);
+        } else {
+            globalStickyUntil = System.nanoTime() + windowNanos;
+        }
+    }
+
+    // background writers (counter flushes, index jobs) have no request state and pin nothing
+    void recordWrite() {
+        RequestState state = CURRENT.get();
+        if (state != null) {
+            state.wrote = true;
+        }
+    }
+
+    boolean requiresPrimary() {
+        return System.nanoTime() - globalStickyUntil < 0 || isRequestPinned();
+    }
+
+    // whether the current request reads from the primary because of its own write or its user's
+    public static boolean isRequestPinned() {
+        RequestState state = CURRENT.get();
+        return state != null && (state.sticky || state.wrote);
+    }
+
+    /**
+     * Carries a pinned request's pin over to work it hands to another thread, such as cache loads,
+     * so what is loaded for it comes from the primary too.
+     */
+    public static Runnable propagate(Runnable task) {
+        if (!isRequestPinned()) {
+            return task;
+        }
+
+        return () -> {
+            RequestState previous = CURRENT.get();
+            CURRENT.set(new RequestState(null, true));
+            try {
+                task.run();
+            } finally {
+                if (previous == null) {
+                    CURRENT.remove();
+                } else {
+                    CURRENT.set(previous);
+                }
+            }
+        };
+    }
+}
\ No newline at end of file
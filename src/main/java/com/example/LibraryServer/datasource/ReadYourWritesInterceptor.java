@@ -0,0 +1,66 @@
+package com.example.LibraryServer.datasource;
+
+import com.example.LibraryServer.security.TokenAuthentication;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class ReadYourWritesInterceptor implements AsyncHandlerInterceptor {
+
+    private final ReadYourWrites readYourWrites;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        readYourWrites.beginRequest(userId(request));
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        readYourWrites.endRequest();
+    }
+
+    // the container thread goes back to the pool here; the async dispatch begins a request of its own
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        readYourWrites.endRequest();
+    }
+
+    // the {userId}/{id} path variable, or the token's user for paths without one such as /me
+    private static Long userId(HttpServletRequest request) {
+        if (!request.getRequestURI().startsWith("/api/users/")) {
+            return null;
+        }
+
+        Long pathUserId = pathUserId(request);
+        if (pathUserId != null) {
+            return pathUserId;
+        }
+        return SecurityContextHolder.getContext().getAuthentication() instanceof TokenAuthentication token
+                ? token.getUserId()
+                : null;
+    }
+
+    private static Long pathUserId(HttpServletRequest request) {
+        @SuppressWarnings("unchecked")
+        Map<String, String> variables =
+                (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        if (variables == null) {
+            return null;
+        }
+
+        String value = variables.getOrDefault("userId", variables.get("id"));
+        try {
+            return value == null ? null : Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,46 @@
+package com.example.LibraryServer.event;
+
+import com.example.LibraryServer.model.Product;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class ProductChangeListener {
+
+    private static final ThreadLocal<Boolean> SUPPRESSED = ThreadLocal.withInitial(() -> false);
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Runs {@code writes} without a ProductChangedEvent per row; the caller publishes one event for the
+     * whole batch instead. Entity callbacks fire on the flushing thread, so {@code writes} must flush.
+     */
+    public void withoutEvents(Runnable writes) {
+        SUPPRESSED.set(true);
+        try {
+            writes.run();
+        } finally {
+            SUPPRESSED.remove();
+        }
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSaved(Product product) {
+        if (!SUPPRESSED.get()) {
+            eventPublisher.publishEvent(ProductChangedEvent.saved(product));
+        }
+    }
+
+    @PostRemove
+    public void onRemoved(Product product) {
+        if (!SUPPRESSED.get()) {
+            eventPublisher.publishEvent(ProductChangedEvent.removed(product.getId()));
+        }
+    }
+}
\ No newline at end of file
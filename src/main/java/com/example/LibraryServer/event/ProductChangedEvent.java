@@ -0,0 +1,26 @@
+package com.example.LibraryServer.event;
+
+import com.example.LibraryServer.model.Product;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class ProductChangedEvent {
+
+    private final Long productId;
+    private final Product product;
+
+    public static ProductChangedEvent saved(Product product) {
+        return new ProductChangedEvent(product.getId(), product);
+    }
+
+    public static ProductChangedEvent removed(Long productId) {
+        return new ProductChangedEvent(productId, null);
+    }
+
+    public boolean isRemoved() {
+        return product == null;
+    }
+}
\ No newline at end of file
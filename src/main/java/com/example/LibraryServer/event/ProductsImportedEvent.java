@@ -0,0 +1,16 @@
+package com.example.LibraryServer.event;
+
+import com.example.LibraryServer.model.Product;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import java.util.List;
+
+/**
+ * One committed chunk of a bulk import, published in place of a ProductChangedEvent per row.
+ */
+@Getter
+@AllArgsConstructor
+public class ProductsImportedEvent {
+
+    private final List<Product> products;
+}
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.example.LibraryServer.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class SavedProductChangedEvent {
+
+    private final Long userId;
+    private final Long productId;
+    private final boolean saved;
+}
\ No newline at end of file
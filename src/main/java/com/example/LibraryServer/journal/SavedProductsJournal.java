@@ -0,0 +1,208 @@
+package com.example.LibraryServer.journal;
+
+import lombok.extern.slf4j.Slf4j;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of saved-product toggles in fixed-size, memory-mapped segment files. Each record
+ * is a 40-byte slot ending in a CRC, so replay stops cleanly at the first unwritten or torn slot.
+ * Appends only touch the mapping; {@link #force()} makes them durable. Not thread-safe: appends and
+ * {@link #checkpoint} must be serialized by the caller, {@link #force()} may run concurrently.
+ */
+@Slf4j
+class SavedProductsJournal implements AutoCloseable {
+
+    static final int RECORD_SIZE = 40;
+
+    private static final int CRC_OFFSET = RECORD_SIZE - Integer.BYTES;
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    record Entry(long sequence, long userId, long productId, boolean saved, long savedAtMicros) {
+    }
+
+    private record Segment(Path path, long lastSequence) {
+    }
+
+    private final Path directory;
+    private final int segmentSize;
+    private final Deque<Segment> sealed = new ArrayDeque<>();
+    private final byte[] scratch = new byte[RECORD_SIZE];
+    private final ByteBuffer scratchBuffer = ByteBuffer.wrap(scratch);
+    private final CRC32C crc = new CRC32C();
+
+    private FileChannel channel;
+    private Path activePath;
+    private volatile MappedByteBuffer active;
+    private int position;
+    private long lastSequence;
+
+    private SavedProductsJournal(Path directory, int segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize - segmentSize % RECORD_SIZE;
+    }
+
+    /** Opens the journal, handing every record after the last checkpoint to {@code replay} in order. */
+    static SavedProductsJournal open(Path directory, int segmentSize, Consumer<Entry> replay) throws IOException {
+        Files.createDirectories(directory);
+        SavedProductsJournal journal = new SavedProductsJournal(directory, segmentSize);
+        journal.replay(replay);
+        journal.roll();
+        return journal;
+    }
+
+    long lastSequence() {
+        return lastSequence;
+    }
+
+    long append(long userId, long productId, boolean saved, long savedAtMicros) {
+        if (position + RECORD_SIZE > segmentSize) {
+            try {
+                seal();
+                roll();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        long sequence = lastSequence + 1;
+        scratchBuffer.clear();
+        scratchBuffer.putLong(sequence)
+                .putLong(userId)
+                .putLong(productId)
+                .putLong(savedAtMicros)
+                .putInt(saved ? 1 : 0);
+        crc.reset();
+        crc.update(scratch, 0, CRC_OFFSET);
+        scratchBuffer.putInt((int) crc.getValue());
+
+        active.put(position, scratch);
+        position += RECORD_SIZE;
+        lastSequence = sequence;
+        return sequence;
+    }
+
+    void force() {
+        active.force();
+    }
+
+    /** Records that everything up to {@code sequence} is in the database and drops segments it covers. */
+    void checkpoint(long sequence) throws IOException {
+        Path temp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            out.write(ByteBuffer.allocate(Long.BYTES).putLong(0, sequence));
+            out.force(true);
+        }
+        Files.move(temp, directory.resolve(CHECKPOINT_FILE), StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+
+        while (!sealed.isEmpty() && sealed.peekFirst().lastSequence() <= sequence) {
+            Files.deleteIfExists(sealed.pollFirst().path());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        active.force();
+        channel.close();
+    }
+
+    private void replay(Consumer<Entry> replay) throws IOException {
+        long checkpoint = readCheckpoint();
+        lastSequence = checkpoint;
+
+        List<Path> segments;
+        try (Stream<Path> files = Files.list(directory)) {
+            segments = new ArrayList<>(files.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList());
+        }
+
+        long replayed = 0;
+        for (Path path : segments) {
+            long segmentLast = 0;
+            try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+                for (int offset = 0; offset + RECORD_SIZE <= buffer.limit(); offset += RECORD_SIZE) {
+                    Entry entry = read(buffer, offset, path);
+                    if (entry == null) {
+                        break;
+                    }
+                    segmentLast = entry.sequence();
+                    if (entry.sequence() > checkpoint) {
+                        replay.accept(entry);
+                        replayed++;
+                    }
+                }
+            }
+
+            if (segmentLast <= checkpoint) {
+                Files.deleteIfExists(path);
+            } else {
+                sealed.addLast(new Segment(path, segmentLast));
+                lastSequence = Math.max(lastSequence, segmentLast);
+            }
+        }
+
+        if (replayed > 0) {
+            log.info("Replayed {} saved-product toggles from {}", replayed, directory);
+        }
+    }
+
+    private Entry read(MappedByteBuffer buffer, int offset, Path path) {
+        long sequence = buffer.getLong(offset);
+        if (sequence == 0) {
+            return null;
+        }
+
+        buffer.get(offset, scratch, 0, RECORD_SIZE);
+        crc.reset();
+        crc.update(scratch, 0, CRC_OFFSET);
+        if ((int) crc.getValue() != buffer.getInt(offset + CRC_OFFSET)) {
+            log.warn("Torn record at {} offset {}, ignoring the rest of the segment", path, offset);
+            return null;
+        }
+
+        return new Entry(sequence, buffer.getLong(offset + 8), buffer.getLong(offset + 16),
+                buffer.getInt(offset + 32) == 1, buffer.getLong(offset + 24));
+    }
+
+    private long readCheckpoint() throws IOException {
+        Path file = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        return ByteBuffer.wrap(Files.readAllBytes(file)).getLong();
+    }
+
+    private void seal() throws IOException {
+        active.force();
+        channel.close();
+        sealed.addLast(new Segment(activePath, lastSequence));
+    }
+
+    // segments are named after their first sequence, zero-padded so names sort in replay order
+    private void roll() throws IOException {
+        activePath = directory.resolve(String.format("%020d%s", lastSequence + 1, SEGMENT_SUFFIX));
+        channel = FileChannel.open(activePath, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        active = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        position = 0;
+    }
+}
\ No newline at end of file
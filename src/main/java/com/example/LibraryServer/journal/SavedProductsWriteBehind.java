@@ -0,0 +1,328 @@
+package com.example.LibraryServer.journal;
+
+import com.example.LibraryServer.repository.SavedToggleRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Optional write-behind for save/unsave toggles. A toggle is appended to the local journal and kept as
+ * the pending final state of its (user, product) pair, so bursts of taps on one heart collapse into at
+ * most one row change. Pending states are written to user_saved_products in batches, after which the
+ * journal is checkpointed; on startup everything after the checkpoint is replayed into the pending set.
+ */
+@Component
+@Slf4j
+public class SavedProductsWriteBehind {
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentSize;
+    private final Duration fsyncInterval;
+    private final boolean awaitFsync;
+    private final SavedToggleRepository savedToggleRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<Long, Map<Long, Pending>> pending = new ConcurrentHashMap<>();
+    private final AtomicLong pendingCount = new AtomicLong();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Timer flushTimer;
+    private final Timer fsyncTimer;
+    private final Counter coalescedCounter;
+
+    private SavedProductsJournal journal;
+    private ScheduledExecutorService fsyncExecutor;
+    private CompletableFuture<Void> nextFsync = new CompletableFuture<>();
+
+    private record Pending(long sequence, boolean saved, LocalDateTime savedAt) {
+    }
+
+    public SavedProductsWriteBehind(SavedToggleRepository savedToggleRepository,
+                                    TransactionTemplate transactionTemplate,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${app.saved.write-behind.enabled}") boolean enabled,
+                                    @Value("${app.saved.write-behind.journal-dir}") Path directory,
+                                    @Value("${app.saved.write-behind.segment-size}") DataSize segmentSize,
+                                    @Value("${app.saved.write-behind.fsync-interval}") Duration fsyncInterval,
+                                    @Value("${app.saved.write-behind.await-fsync}") boolean awaitFsync) {
+        this.savedToggleRepository = savedToggleRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.directory = directory;
+        this.segmentSize = Math.toIntExact(segmentSize.toBytes());
+        this.fsyncInterval = fsyncInterval;
+        this.awaitFsync = awaitFsync;
+
+        this.flushTimer = Timer.builder("saved.writebehind.flush")
+                .description("Time to write pending saved-product toggles to the database")
+                .register(meterRegistry);
+        this.fsyncTimer = Timer.builder("saved.writebehind.fsync")
+                .description("Time to force the toggle journal to disk")
+                .register(meterRegistry);
+        this.coalescedCounter = Counter.builder("saved.writebehind.coalesced")
+                .description("Toggles absorbed by a pending toggle of the same user and product")
+                .register(meterRegistry);
+        Gauge.builder("saved.writebehind.pending", pendingCount, AtomicLong::get)
+                .description("User/product pairs waiting to be written")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+
+        // the offset only encodes the local timestamp as a number, it is not a time zone conversion
+        journal = SavedProductsJournal.open(directory, segmentSize, entry -> {
+            LocalDateTime savedAt = LocalDateTime.ofEpochSecond(
+                    entry.savedAtMicros() / 1_000_000, (int) (entry.savedAtMicros() % 1_000_000) * 1000,
+                    ZoneOffset.UTC);
+            put(entry.userId(), entry.productId(), new Pending(entry.sequence(), entry.saved(), savedAt));
+        });
+
+        fsyncExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "saved-journal-fsync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        fsyncExecutor.scheduleWithFixedDelay(this::fsync, fsyncInterval.toMillis(), fsyncInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Journals a toggle and makes it the pending state of the pair. The pair's last state is always
+     * written, even when it looks like a no-op: {@code stored} is the caller's possibly stale view of
+     * the database and only decides the return value, the writes themselves are idempotent.
+     *
+     * @return whether the saved state of the pair changed, as seen by the caller
+     */
+    public boolean toggle(long userId, long productId, boolean saved, boolean stored) {
+        boolean changed;
+        CompletableFuture<Void> durable;
+        lock.lock();
+        try {
+            Map<Long, Pending> products = pending.get(userId);
+            Pending current = products == null ? null : products.get(productId);
+            changed = (current != null ? current.saved() : stored) != saved;
+
+            LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+            long sequence = journal.append(userId, productId, saved,
+                    now.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + now.getNano() / 1000);
+
+            // a pair toggled several times before a flush is still written once, with its last state
+            if (put(userId, productId, new Pending(sequence, saved, now)) != null) {
+                coalescedCounter.increment();
+            }
+            durable = nextFsync;
+        } finally {
+            lock.unlock();
+        }
+
+        if (awaitFsync) {
+            durable.join();
+        }
+        return changed;
+    }
+
+    /**
+     * Saved product ids for a user: what {@code stored} reads from the database with pending toggles
+     * applied. Pending states seen before the read are applied too, in case a flush commits them and
+     * drops them from the pending set while the read is running.
+     */
+    public long[] savedProductIds(long userId, Supplier<long[]> stored) {
+        if (!enabled) {
+            return stored.get();
+        }
+        return savedProductIds(List.of(userId), () -> Map.of(userId, stored.get())).get(userId);
+    }
+
+    /**
+     * The same for several users read at once; users missing from what {@code stored} returns have no
+     * saved products in the database.
+     */
+    public Map<Long, long[]> savedProductIds(Collection<Long> userIds, Supplier<Map<Long, long[]>> stored) {
+        if (!enabled) {
+            return stored.get();
+        }
+
+        Map<Long, Map<Long, Boolean>> overlays = new HashMap<>();
+        userIds.forEach(userId -> overlays.put(userId, pendingFor(userId)));
+        Map<Long, long[]> productIds = new HashMap<>(stored.get());
+        overlays.forEach((userId, overlay) -> {
+            overlay.putAll(pendingFor(userId));
+            if (!overlay.isEmpty()) {
+                productIds.put(userId, apply(productIds.getOrDefault(userId, new long[0]), overlay));
+            }
+        });
+        return productIds;
+    }
+
+    @Scheduled(fixedDelayString = "${app.saved.write-behind.flush-interval-ms}",
+            initialDelayString = "${app.saved.write-behind.flush-interval-ms}")
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+
+        flushLock.lock();
+        try {
+            flushTimer.record(this::writePending);
+        } catch (RuntimeException e) {
+            // pending states and the journal stay as they are and are retried on the next flush
+            log.warn("Failed to flush saved-product toggles", e);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (!enabled) {
+            return;
+        }
+
+        fsyncExecutor.shutdown();
+        flush();
+        lock.lock();
+        try {
+            journal.close();
+        } finally {
+            lock.unlock();
+        }
+        nextFsync.complete(null);
+    }
+
+    private void writePending() {
+        long upTo;
+        lock.lock();
+        try {
+            upTo = journal.lastSequence();
+        } finally {
+            lock.unlock();
+        }
+
+        // every pair journaled up to upTo is pending by now: appends and puts happen under one lock
+        List<SavedToggleRepository.Toggle> toggles = new ArrayList<>();
+        Map<Long, Map<Long, Pending>> written = new HashMap<>();
+        pending.forEach((userId, products) -> products.forEach((productId, state) -> {
+            if (state.sequence() <= upTo) {
+                toggles.add(new SavedToggleRepository.Toggle(userId, productId, state.saved(), state.savedAt()));
+                written.computeIfAbsent(userId, id -> new HashMap<>()).put(productId, state);
+            }
+        }));
+
+        if (!toggles.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> savedToggleRepository.apply(toggles));
+        }
+
+        lock.lock();
+        try {
+            // pairs toggled again during the write keep their newer state
+            written.forEach((userId, products) -> products.forEach((productId, state) ->
+                    remove(userId, productId, state)));
+            journal.checkpoint(upTo);
+        } catch (IOException e) {
+            log.warn("Failed to checkpoint the saved-product journal at {}", upTo, e);
+        } finally {
+            lock.unlock();
+        }
+
+        log.debug("Flushed {} saved-product toggles up to sequence {}", toggles.size(), upTo);
+    }
+
+    private void fsync() {
+        CompletableFuture<Void> covered;
+        lock.lock();
+        try {
+            covered = nextFsync;
+            nextFsync = new CompletableFuture<>();
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            fsyncTimer.record(journal::force);
+            covered.complete(null);
+        } catch (RuntimeException e) {
+            log.warn("Failed to force the saved-product journal", e);
+            covered.completeExceptionally(e);
+        }
+    }
+
+    private static long[] apply(long[] productIds, Map<Long, Boolean> overlay) {
+        Set<Long> result = new LinkedHashSet<>();
+        Arrays.stream(productIds).forEach(result::add);
+        overlay.forEach((productId, saved) -> {
+            if (saved) {
+                result.add(productId);
+            } else {
+                result.remove(productId);
+            }
+        });
+        return result.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private Map<Long, Boolean> pendingFor(long userId) {
+        Map<Long, Pending> products = pending.get(userId);
+        Map<Long, Boolean> states = new HashMap<>();
+        if (products != null) {
+            products.forEach((productId, state) -> states.put(productId, state.saved()));
+        }
+        return states;
+    }
+
+    private Pending put(long userId, long productId, Pending state) {
+        Pending previous = pending.computeIfAbsent(userId, id -> new ConcurrentHashMap<>()).put(productId, state);
+        if (previous == null) {
+            pendingCount.incrementAndGet();
+        }
+        return previous;
+    }
+
+    private void remove(long userId, long productId, Pending state) {
+        Map<Long, Pending> products = pending.get(userId);
+        if (products != null && products.remove(productId, state)) {
+            pendingCount.decrementAndGet();
+            if (products.isEmpty()) {
+                pending.remove(userId, products);
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,161 @@
+package com.example.LibraryServer.limiter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Adaptive limit on concurrent API requests, after the gradient limiter of Netflix concurrency-limits.
+ * Each window's average latency is compared with a slow-moving baseline: while they match, the limit
+ * grows by about its square root; as latency rises above the baseline it shrinks in proportion; a
+ * window with a connection timeout cuts it multiplicatively. A request is admitted while the number in
+ * flight is below its priority's share of the limit.
+ */
+@Component
+@ConditionalOnProperty(name = "app.limiter.enabled", havingValue = "true")
+public class ConcurrencyLimiter {
+
+    private static final long WINDOW_NANOS = TimeUnit.MILLISECONDS.toNanos(250);
+    private static final int MIN_WINDOW_SAMPLES = 10;
+    private static final int BASELINE_WINDOWS = 100;
+    private static final double RTT_TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Map<Priority, Counter> accepted = new EnumMap<>(Priority.class);
+    private final Map<Priority, Counter> rejected = new EnumMap<>(Priority.class);
+    private final Counter backoffs;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile int limit;
+    private volatile double baselineRttNanos;
+    private double estimatedLimit;
+    private long windowStart = System.nanoTime();
+    private long windowRttNanos;
+    private int windowSamples;
+    private int windowMaxInFlight;
+    private boolean windowDropped;
+
+    public ConcurrencyLimiter(MeterRegistry meterRegistry,
+                              @Value("${app.limiter.initial-limit}") int initialLimit,
+                              @Value("${app.limiter.min-limit}") int minLimit,
+                              @Value("${app.limiter.max-limit}") int maxLimit) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.estimatedLimit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.limit = (int) estimatedLimit;
+
+        for (Priority priority : Priority.values()) {
+            accepted.put(priority, requestCounter(meterRegistry, priority, "accepted"));
+            rejected.put(priority, requestCounter(meterRegistry, priority, "rejected"));
+        }
+        this.backoffs = Counter.builder("limiter.backoffs")
+                .description("Limit cuts after a database connection timeout")
+                .register(meterRegistry);
+        Gauge.builder("limiter.limit", this, ConcurrencyLimiter::getLimit)
+                .description("Current concurrency limit")
+                .register(meterRegistry);
+        Gauge.builder("limiter.inflight", inFlight, AtomicInteger::get)
+                .description("Requests currently admitted")
+                .register(meterRegistry);
+        Gauge.builder("limiter.rtt.baseline", this, limiter -> limiter.baselineRttNanos / 1_000_000)
+                .baseUnit("milliseconds")
+                .description("Latency the limiter treats as unloaded")
+                .register(meterRegistry);
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public boolean tryAcquire(Priority priority) {
+        int allowed = Math.max(1, (int) Math.ceil(limit * priority.getShare()));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                rejected.get(priority).increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                accepted.get(priority).increment();
+                return true;
+            }
+        }
+    }
+
+    // for requests whose latency says nothing about the database, such as long-running streams
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    public void release(long rttNanos, boolean dropped) {
+        int current = inFlight.getAndDecrement();
+
+        lock.lock();
+        try {
+            windowRttNanos += rttNanos;
+            windowSamples++;
+            windowMaxInFlight = Math.max(windowMaxInFlight, current);
+            windowDropped |= dropped;
+
+            long now = System.nanoTime();
+            if (windowDropped || (now - windowStart >= WINDOW_NANOS && windowSamples >= MIN_WINDOW_SAMPLES)) {
+                update((double) windowRttNanos / windowSamples);
+                windowStart = now;
+                windowRttNanos = 0;
+                windowSamples = 0;
+                windowMaxInFlight = 0;
+                windowDropped = false;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void update(double rttNanos) {
+        if (windowDropped) {
+            estimatedLimit *= BACKOFF_RATIO;
+            backoffs.increment();
+        } else {
+            double baseline = baselineRttNanos == 0
+                    ? rttNanos
+                    : baselineRttNanos + (rttNanos - baselineRttNanos) / BASELINE_WINDOWS;
+            // a baseline far above current latency is left over from a slow start; let it come down
+            if (baseline / rttNanos > 2) {
+                baseline *= 0.95;
+            }
+            baselineRttNanos = baseline;
+
+            // with most of the limit unused, latency says nothing about how far it could go
+            if (windowMaxInFlight < estimatedLimit / 2) {
+                return;
+            }
+
+            double gradient = Math.max(0.5, Math.min(1.0, RTT_TOLERANCE * baseline / rttNanos));
+            double target = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+            estimatedLimit = estimatedLimit * (1 - SMOOTHING) + target * SMOOTHING;
+        }
+
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, estimatedLimit));
+        limit = (int) estimatedLimit;
+    }
+
+    private static Counter requestCounter(MeterRegistry meterRegistry, Priority priority, String outcome) {
+        return Counter.builder("limiter.requests")
+                .tag("priority", priority.name().toLowerCase())
+                .tag("outcome", outcome)
+                .description("Requests admitted or shed by the concurrency limiter")
+                .register(meterRegistry);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,17 @@
+package com.example.LibraryServer.limiter;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum Priority {
+
+    // point lookups and status checks: may use the whole limit
+    CHEAP(1.0),
+    NORMAL(0.8),
+    // full catalog, saved lists, import/export: shed first, so they can never starve cheap reads
+    HEAVY(0.5);
+
+    private final double share;
+}
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.example.LibraryServer.limiter;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Admission priority of a handler under the concurrency limit; handlers without it are NORMAL.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RequestPriority {
+
+    Priority value();
+}
\ No newline at end of file
@@ -0,0 +1,50 @@
+package com.example.LibraryServer.mapper;
+
+import com.example.LibraryServer.dto.ProductDTO;
+import com.example.LibraryServer.dto.TokenDTO;
+import com.example.LibraryServer.dto.UserDTO;
+import com.example.LibraryServer.model.Product;
+import com.example.LibraryServer.security.IssuedTokens;
+import com.example.LibraryServer.service.UserProfile;
+
+/**
+ * Entity to DTO mappings shared by the controllers, the catalog snapshots and the benchmarks. They live outside the
+ * dto package because the reactive module compiles that package without the JPA model.
+ */
+public final class DtoMapper {
+
+    private DtoMapper() {
+    }
+
+    public static ProductDTO toProductDTO(Product product) {
+        return ProductDTO.builder()
+                .id(product.getId())
+                .name(product.getName())
+                .description(product.getDescription())
+                .price(product.getPrice())
+                .category(product.getCategory())
+                .imageUrl(product.getImageUrl())
+                .isAvailable(product.getIsAvailable())
+                .build();
+    }
+
+    public static UserDTO toUserDTO(UserProfile profile) {
+        return UserDTO.builder()
+                .id(profile.getId())
+                .username(profile.getUsername())
+                .name(profile.getName())
+                .email(profile.getEmail())
+                .phone(profile.getPhone())
+                .savedProducts(profile.getSavedProductIds())
+                .savedProductsCount(profile.getSavedProductsCount())
+                .build();
+    }
+
+    public static TokenDTO toTokenDTO(IssuedTokens tokens) {
+        return TokenDTO.builder()
+                .accessToken(tokens.getAccessToken())
+                .refreshToken(tokens.getRefreshToken())
+                .expiresIn(tokens.getAccessTokenTtl().toSeconds())
+                .build();
+    }
+}
\ No newline at end of file
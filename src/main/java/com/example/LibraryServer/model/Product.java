@@ -1,5 +1,6 @@
 package com.example.LibraryServer.model;
 
+import com.example.LibraryServer.event.ProductChangeListener;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
@@ -9,8 +10,13 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "products", indexes = {
         @Index(name = "idx_products_name", columnList = "name"),
-        @Index(name = "idx_products_category", columnList = "category")
+        @Index(name = "idx_products_category", columnList = "category"),
+        @Index(name = "idx_products_category_id", columnList = "category, id"),
+        @Index(name = "idx_products_price_id", columnList = "price, id"),
+        @Index(name = "idx_products_updated_at", columnList = "updated_at"),
+        @Index(name = "idx_products_saved_count", columnList = "saved_count DESC, id")
 })
+@EntityListeners(ProductChangeListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -18,7 +24,8 @@ import java.time.LocalDateTime;
 public class Product {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_seq")
+    @SequenceGenerator(name = "products_seq", sequenceName = "products_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, length = 255)
@@ -40,6 +47,10 @@ public class Product {
     @Builder.Default
     private Boolean isAvailable = true;
 
+    // maintained by SavedProductCounters, never written through the entity
+    @Column(name = "saved_count", insertable = false, updatable = false)
+    private Long savedCount;
+
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
@@ -17,7 +17,8 @@ import java.util.List;
 public class User {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     @Column(unique = true, nullable = false, length = 100)
@@ -35,6 +36,10 @@ public class User {
     @Column(nullable = false, length = 255)
     private String password;
 
+    // maintained by SavedProductCounters, never written through the entity
+    @Column(name = "saved_products_count", insertable = false, updatable = false)
+    private Long savedProductsCount;
+
     @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
             name = "user_saved_products",
@@ -6,8 +6,12 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "user_saved_products")
-@Data
+@Table(name = "user_saved_products", indexes = {
+        @Index(name = "idx_user_saved_products_feed", columnList = "user_id, saved_at DESC, product_id DESC"),
+        @Index(name = "idx_user_saved_products_product", columnList = "product_id")
+})
+@Getter
+@Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
@@ -15,16 +19,16 @@ import java.time.LocalDateTime;
 public class UserSavedProducts {
 
     @Id
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
     @Id
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "product_id", nullable = false)
     private Product product;
 
     @CreationTimestamp
-    @Column(name = "saved_at", updatable = false)
+    @Column(name = "saved_at", nullable = false, updatable = false)
     private LocalDateTime savedAt;
 }
\ No newline at end of file
@@ -1,5 +1,12 @@
 package com.example.LibraryServer.model;
 
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+@EqualsAndHashCode
+@NoArgsConstructor
+@AllArgsConstructor
 public class UserSavedProductsId implements java.io.Serializable {
     private Long user;
     private Long product;
@@ -0,0 +1,17 @@
+package com.example.LibraryServer.monitoring;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+/**
+ * Async appender that, once the queue passes its discarding threshold, drops only TRACE and DEBUG
+ * events. Logback's default also drops INFO, which would lose startup and import summaries under load.
+ */
+public class DebugDiscardingAsyncAppender extends AsyncAppender {
+
+    @Override
+    protected boolean isDiscardable(ILoggingEvent event) {
+        return event.getLevel().toInt() <= Level.DEBUG_INT;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.example.LibraryServer.monitoring;
+
+import org.hibernate.Interceptor;
+import org.hibernate.type.Type;
+
+public class EntityLoadInterceptor implements Interceptor {
+
+    @Override
+    public boolean onLoad(Object entity, Object id, Object[] state, String[] propertyNames, Type[] types) {
+        RequestProfile profile = RequestProfile.current();
+        if (profile != null) {
+            profile.recordEntityLoad();
+        }
+        return false;
+    }
+}
\ No newline at end of file
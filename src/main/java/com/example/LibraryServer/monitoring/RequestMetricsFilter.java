@@ -0,0 +1,126 @@
+package com.example.LibraryServer.monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records per-endpoint JDBC statement counts, rows fetched, statement time, connection wait and
+ * entity loads next to the http.server.requests latency timer, and logs a sample of slow requests
+ * with the statements they ran.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+    private final long slowRequestThresholdNanos;
+    private final double slowRequestSampleRate;
+    private final ConcurrentMap<Endpoint, EndpointMeters> meters = new ConcurrentHashMap<>();
+
+    public RequestMetricsFilter(
+            MeterRegistry meterRegistry,
+            @Value("${app.monitoring.slow-request-threshold}") Duration slowRequestThreshold,
+            @Value("${app.monitoring.slow-request-sample-rate}") double slowRequestSampleRate) {
+        this.meterRegistry = meterRegistry;
+        this.slowRequestThresholdNanos = slowRequestThreshold.toNanos();
+        this.slowRequestSampleRate = slowRequestSampleRate;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestProfile profile = RequestProfile.start();
+        long startedAt = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            long elapsedNanos = System.nanoTime() - startedAt;
+            profile.end();
+
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            Endpoint endpoint = new Endpoint(request.getMethod(), pattern == null ? "UNKNOWN" : pattern.toString());
+            meters.computeIfAbsent(endpoint, this::register).record(profile);
+
+            if (elapsedNanos >= slowRequestThresholdNanos
+                    && ThreadLocalRandom.current().nextDouble() < slowRequestSampleRate) {
+                logSlowRequest(request, response, profile, elapsedNanos);
+            }
+        }
+    }
+
+    private void logSlowRequest(HttpServletRequest request, HttpServletResponse response,
+                                RequestProfile profile, long elapsedNanos) {
+        log.warn("Slow request {} {} -> {} in {} ms: {} statements ({} ms), {} rows, {} entities loaded, "
+                        + "{} connections (waited {} ms){}",
+                request.getMethod(), request.getRequestURI(), response.getStatus(),
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                profile.getStatementCount(), TimeUnit.NANOSECONDS.toMillis(profile.getStatementNanos()),
+                profile.getRowCount(), profile.getEntityLoadCount(),
+                profile.getConnectionCount(), TimeUnit.NANOSECONDS.toMillis(profile.getConnectionWaitNanos()),
+                profile.describeStatements());
+    }
+
+    private EndpointMeters register(Endpoint endpoint) {
+        String[] tags = {"method", endpoint.method(), "uri", endpoint.uri()};
+        return new EndpointMeters(
+                DistributionSummary.builder("http.server.requests.jdbc.statements")
+                        .description("JDBC statements executed per request")
+                        .tags(tags)
+                        .register(meterRegistry),
+                DistributionSummary.builder("http.server.requests.jdbc.rows")
+                        .description("Result set rows read per request")
+                        .tags(tags)
+                        .register(meterRegistry),
+                Timer.builder("http.server.requests.jdbc.time")
+                        .description("Time spent executing JDBC statements per request")
+                        .tags(tags)
+                        .register(meterRegistry),
+                Timer.builder("http.server.requests.connection.wait")
+                        .description("Time spent waiting for pooled connections per request")
+                        .tags(tags)
+                        .register(meterRegistry),
+                DistributionSummary.builder("http.server.requests.entities.loaded")
+                        .description("Entities hydrated by Hibernate per request")
+                        .tags(tags)
+                        .register(meterRegistry));
+    }
+
+    private record Endpoint(String method, String uri) {
+    }
+
+    private record EndpointMeters(DistributionSummary statements, DistributionSummary rows, Timer statementTime,
+                                  Timer connectionWait, DistributionSummary entitiesLoaded) {
+
+        void record(RequestProfile profile) {
+            statements.record(profile.getStatementCount());
+            rows.record(profile.getRowCount());
+            statementTime.record(profile.getStatementNanos(), TimeUnit.NANOSECONDS);
+            connectionWait.record(profile.getConnectionWaitNanos(), TimeUnit.NANOSECONDS);
+            entitiesLoaded.record(profile.getEntityLoadCount());
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,132 @@
+package com.example.LibraryServer.monitoring;
+
+import java.util.Locale;
+
+/**
+ * Per-request counters filled in by the JDBC proxies and the Hibernate interceptor. Bound to the
+ * request thread by {@link RequestMetricsFilter} and carried over to cache and batch loads the
+ * request waits on by {@link #propagate}; other work on other threads (async export, scheduled jobs)
+ * sees no current profile and is not instrumented.
+ */
+public final class RequestProfile {
+
+    static final int MAX_RECORDED_STATEMENTS = 50;
+
+    private static final ThreadLocal<RequestProfile> CURRENT = new ThreadLocal<>();
+
+    private int statementCount;
+    private long statementNanos;
+    private long rowCount;
+    private int connectionCount;
+    private long connectionWaitNanos;
+    private int entityLoadCount;
+    private String[] statements;
+    private long[] statementDurations;
+
+    private RequestProfile() {
+    }
+
+    static RequestProfile start() {
+        RequestProfile profile = new RequestProfile();
+        CURRENT.set(profile);
+        return profile;
+    }
+
+    public static RequestProfile current() {
+        return CURRENT.get();
+    }
+
+    void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Binds the current profile to a task handed to another thread, so the statements it runs count
+     * towards the request. Only for tasks the request then parks on: the profile is not thread-safe,
+     * and completing the task's future is what publishes its counts back to the request thread.
+     */
+    public static Runnable propagate(Runnable task) {
+        RequestProfile profile = CURRENT.get();
+        if (profile == null) {
+            return task;
+        }
+
+        return () -> {
+            RequestProfile previous = CURRENT.get();
+            CURRENT.set(profile);
+            try {
+                task.run();
+            } finally {
+                if (previous == null) {
+                    CURRENT.remove();
+                } else {
+                    CURRENT.set(previous);
+                }
+            }
+        };
+    }
+
+    public void recordStatement(String sql, long nanos) {
+        // keeps references only; nothing is formatted unless the request ends up in the slow log
+        if (statements == null) {
+            statements = new String[MAX_RECORDED_STATEMENTS];
+            statementDurations = new long[MAX_RECORDED_STATEMENTS];
+        }
+        if (statementCount < MAX_RECORDED_STATEMENTS) {
+            statements[statementCount] = sql;
+            statementDurations[statementCount] = nanos;
+        }
+        statementCount++;
+        statementNanos += nanos;
+    }
+
+    public void recordRow() {
+        rowCount++;
+    }
+
+    public void recordConnection(long waitNanos) {
+        connectionCount++;
+        connectionWaitNanos += waitNanos;
+    }
+
+    public void recordEntityLoad() {
+        entityLoadCount++;
+    }
+
+    public int getStatementCount() {
+        return statementCount;
+    }
+
+    public long getStatementNanos() {
+        return statementNanos;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public int getConnectionCount() {
+        return connectionCount;
+    }
+
+    public long getConnectionWaitNanos() {
+        return connectionWaitNanos;
+    }
+
+    public int getEntityLoadCount() {
+        return entityLoadCount;
+    }
+
+    String describeStatements() {
+        StringBuilder description = new StringBuilder();
+        int recorded = Math.min(statementCount, MAX_RECORDED_STATEMENTS);
+        for (int i = 0; i < recorded; i++) {
+            String sql = statements[i] == null ? "<batch>" : statements[i].replaceAll("\\s+", " ");
+            description.append(String.format(Locale.ROOT, "%n  [%.2f ms] %s", statementDurations[i] / 1e6, sql));
+        }
+        if (statementCount > recorded) {
+            description.append(String.format("%n  ... %d more", statementCount - recorded));
+        }
+        return description.toString();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,28 @@
+package com.example.LibraryServer.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Cheap fingerprint of the product table: inserts and updates move the latest updated_at,
+ * deletes change the count.
+ */
+@Getter
+@AllArgsConstructor
+public class CatalogVersion {
+
+    private final Long productCount;
+    private final LocalDateTime lastUpdatedAt;
+
+    public String eTag(String variant) {
+        long updated = lastUpdatedAt == null ? 0 : epochMicros(lastUpdatedAt);
+        return "\"" + variant + "-" + productCount + "-" + Long.toHexString(updated) + "\"";
+    }
+
+    // updated_at is stored with microsecond precision
+    public static long epochMicros(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + timestamp.getNano() / 1_000;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.example.LibraryServer.repository;
+
+import com.example.LibraryServer.dto.ProductFilter;
+import com.example.LibraryServer.model.Product;
+import java.util.List;
+
+public interface ProductPageRepository {
+
+    /**
+     * Keyset page in the filter's sort order. With price sort, a null {@code afterPrice} is the first page.
+     */
+    List<Product> findPage(ProductFilter filter, Double afterPrice, long afterId, int limit);
+}
\ No newline at end of file
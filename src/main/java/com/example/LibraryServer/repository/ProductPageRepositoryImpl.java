@@ -0,0 +1,61 @@
+package com.example.LibraryServer.repository;
+
+import com.example.LibraryServer.dto.ProductFilter;
+import com.example.LibraryServer.model.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import lombok.RequiredArgsConstructor;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class ProductPageRepositoryImpl implements ProductPageRepository {
+
+    private final EntityManager entityManager;
+
+    // Only the filters that are set end up in the query, and the keyset is a single row-value comparison,
+    // so Postgres can seek the (price, id) or primary key index instead of scanning past OR branches.
+    @Override
+    public List<Product> findPage(ProductFilter filter, Double afterPrice, long afterId, int limit) {
+        boolean byPrice = filter.getSort() == ProductFilter.SortOrder.PRICE;
+        List<String> conditions = new ArrayList<>();
+        Map<String, Object> parameters = new LinkedHashMap<>();
+
+        if (!byPrice) {
+            conditions.add("p.id > :afterId");
+            parameters.put("afterId", afterId);
+        } else if (afterPrice != null) {
+            conditions.add("(p.price, p.id) > (:afterPrice, :afterId)");
+            parameters.put("afterPrice", afterPrice);
+            parameters.put("afterId", afterId);
+        }
+
+        if (filter.getCategory() != null) {
+            conditions.add("p.category = :category");
+            parameters.put("category", filter.getCategory());
+        }
+        if (filter.getAvailable() != null) {
+            conditions.add("p.isAvailable = :available");
+            parameters.put("available", filter.getAvailable());
+        }
+        if (filter.getMinPrice() != null) {
+            conditions.add("p.price >= :minPrice");
+            parameters.put("minPrice", filter.getMinPrice());
+        }
+        if (filter.getMaxPrice() != null) {
+            conditions.add("p.price <= :maxPrice");
+            parameters.put("maxPrice", filter.getMaxPrice());
+        }
+
+        String jpql = "SELECT p FROM Product p"
+                + (conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions))
+                + (byPrice ? " ORDER BY p.price, p.id" : " ORDER BY p.id");
+
+        TypedQuery<Product> query = entityManager.createQuery(jpql, Product.class)
+                .setMaxResults(limit);
+        parameters.forEach(query::setParameter);
+        return query.getResultList();
+    }
+}
\ No newline at end of file
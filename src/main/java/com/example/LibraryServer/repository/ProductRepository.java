@@ -1,22 +1,65 @@
 package com.example.LibraryServer.repository;
 
 import com.example.LibraryServer.model.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductPageRepository {
 
     List<Product> findByIsAvailableTrue();
 
-    @Query("SELECT p FROM Product p WHERE LOWER(p.name) LIKE LOWER(CONCAT('%', :query, '%')) " +
-            "OR LOWER(p.category) LIKE LOWER(CONCAT('%', :query, '%'))")
-    List<Product> searchProducts(@Param("query") String query);
+    String SEARCH_VECTOR = "(setweight(to_tsvector('simple', coalesce(p.name, '')), 'A') || " +
+            "setweight(to_tsvector('simple', coalesce(p.category, '')), 'B') || " +
+            "setweight(to_tsvector('simple', coalesce(p.description, '')), 'C'))";
+
+    @Query(value = "SELECT p.* FROM products p WHERE " + SEARCH_VECTOR + " @@ to_tsquery('simple', :tsQuery) " +
+            "ORDER BY ts_rank(" + SEARCH_VECTOR + ", to_tsquery('simple', :tsQuery)) DESC, p.id " +
+            "LIMIT :limit OFFSET :offset",
+            nativeQuery = true)
+    List<Product> fullTextSearch(@Param("tsQuery") String tsQuery,
+                                 @Param("limit") int limit,
+                                 @Param("offset") int offset);
+
+    @Query(value = "SELECT count(*) FROM products p WHERE " + SEARCH_VECTOR + " @@ to_tsquery('simple', :tsQuery)",
+            nativeQuery = true)
+    long countFullTextSearch(@Param("tsQuery") String tsQuery);
+
+    List<Product> findByUpdatedAtAfter(LocalDateTime since);
+
+    @Query("SELECT new com.example.LibraryServer.repository.CatalogVersion(count(p), max(p.updatedAt)) " +
+            "FROM Product p")
+    CatalogVersion findCatalogVersion();
+
+    @Query("SELECT p FROM Product p WHERE p.savedCount > 0 ORDER BY p.savedCount DESC, p.id")
+    List<Product> findMostSaved(Limit limit);
+
+    @Query("SELECT p.id FROM Product p WHERE p.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT p.updatedAt FROM Product p WHERE p.id = :id")
+    Optional<LocalDateTime> findUpdatedAtById(@Param("id") Long id);
 
     @Query(value = "SELECT * FROM products ORDER BY price DESC LIMIT :limit",
             nativeQuery = true)
     List<Product> findTopExpensiveProducts(@Param("limit") int limit);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT p FROM Product p ORDER BY p.id")
+    Stream<Product> streamAllOrderById();
 }
\ No newline at end of file
@@ -0,0 +1,31 @@
+package com.example.LibraryServer.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import java.sql.Timestamp;
+import java.time.Instant;
+
+@Repository
+@RequiredArgsConstructor
+public class RevokedTokenRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @return true when this call recorded the revocation, false when the token was revoked already
+     */
+    public boolean revoke(String tokenId, Instant expiresAt) {
+        return jdbcTemplate.update("INSERT INTO revoked_tokens (token_id, expires_at) VALUES (?, ?) " +
+                "ON CONFLICT DO NOTHING", tokenId, Timestamp.from(expiresAt)) == 1;
+    }
+
+    public boolean isRevoked(String tokenId) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM revoked_tokens WHERE token_id = ?)", Boolean.class, tokenId));
+    }
+
+    public int deleteExpired(Instant now) {
+        return jdbcTemplate.update("DELETE FROM revoked_tokens WHERE expires_at <= ?", Timestamp.from(now));
+    }
+}
\ No newline at end of file
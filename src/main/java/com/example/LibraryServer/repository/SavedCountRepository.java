@@ -0,0 +1,60 @@
+package com.example.LibraryServer.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Repository
+@RequiredArgsConstructor
+public class SavedCountRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void addProductDeltas(Map<Long, Long> deltas) {
+        addDeltas("UPDATE products SET saved_count = COALESCE(saved_count, 0) + ? WHERE id = ?", deltas);
+    }
+
+    public void addUserDeltas(Map<Long, Long> deltas) {
+        addDeltas("UPDATE users SET saved_products_count = COALESCE(saved_products_count, 0) + ? WHERE id = ?",
+                deltas);
+    }
+
+    /**
+     * Recounts saved_count from user_saved_products and rewrites the rows that drifted.
+     *
+     * @return the number of products corrected
+     */
+    public int reconcileProductCounts() {
+        return jdbcTemplate.update("UPDATE products p SET saved_count = COALESCE(s.saves, 0) " +
+                "FROM products p2 LEFT JOIN (SELECT product_id, count(*) AS saves FROM user_saved_products " +
+                "GROUP BY product_id) s ON s.product_id = p2.id " +
+                "WHERE p.id = p2.id AND p.saved_count IS DISTINCT FROM COALESCE(s.saves, 0)");
+    }
+
+    /**
+     * Recounts saved_products_count from user_saved_products and rewrites the rows that drifted.
+     *
+     * @return the number of users corrected
+     */
+    public int reconcileUserCounts() {
+        return jdbcTemplate.update("UPDATE users u SET saved_products_count = COALESCE(s.saves, 0) " +
+                "FROM users u2 LEFT JOIN (SELECT user_id, count(*) AS saves FROM user_saved_products " +
+                "GROUP BY user_id) s ON s.user_id = u2.id " +
+                "WHERE u.id = u2.id AND u.saved_products_count IS DISTINCT FROM COALESCE(s.saves, 0)");
+    }
+
+    // ascending ids keep concurrent flushes from several instances from deadlocking on row locks
+    private void addDeltas(String sql, Map<Long, Long> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        new TreeMap<>(deltas).forEach((id, delta) -> rows.add(new Object[]{delta, id}));
+        jdbcTemplate.batchUpdate(sql, rows);
+    }
+}
\ No newline at end of file
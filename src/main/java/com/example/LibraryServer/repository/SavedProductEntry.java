@@ -0,0 +1,10 @@
+package com.example.LibraryServer.repository;
+
+import java.time.LocalDateTime;
+
+public interface SavedProductEntry {
+
+    Long getProductId();
+
+    LocalDateTime getSavedAt();
+}
\ No newline at end of file
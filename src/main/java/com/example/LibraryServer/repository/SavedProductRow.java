@@ -0,0 +1,8 @@
+package com.example.LibraryServer.repository;
+
+public interface SavedProductRow {
+
+    Long getUserId();
+
+    Long getProductId();
+}
\ No newline at end of file
@@ -0,0 +1,11 @@
+package com.example.LibraryServer.repository;
+
+public interface SavedProductsBatchRepository {
+
+    /**
+     * Unknown products are skipped.
+     *
+     * @throws org.springframework.dao.DataIntegrityViolationException when the user does not exist
+     */
+    SavedProductsBatchResult applyBatch(Long userId, long[] productIdsToSave, long[] productIdsToRemove);
+}
\ No newline at end of file
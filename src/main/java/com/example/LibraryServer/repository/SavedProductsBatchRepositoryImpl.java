@@ -0,0 +1,81 @@
+package com.example.LibraryServer.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+@RequiredArgsConstructor
+public class SavedProductsBatchRepositoryImpl implements SavedProductsBatchRepository {
+
+    // One round trip: every CTE sees the same snapshot, so the 'C' row is the count before this statement.
+    // The 'U' row is 0 for an unknown user, which a removals-only batch would otherwise report as success.
+    private static final String APPLY_BATCH_SQL = """
+            WITH removed AS (
+                DELETE FROM user_saved_products
+                WHERE user_id = ? AND product_id = ANY(?)
+                RETURNING product_id
+            ), added AS (
+                INSERT INTO user_saved_products (user_id, product_id, saved_at)
+                SELECT ?, p.id, now() FROM products p WHERE p.id = ANY(?)
+                ON CONFLICT DO NOTHING
+                RETURNING product_id
+            )
+            SELECT 'A' AS change, product_id FROM added
+            UNION ALL
+            SELECT 'R', product_id FROM removed
+            UNION ALL
+            SELECT 'C', count(*) FROM user_saved_products WHERE user_id = ?
+            UNION ALL
+            SELECT 'U', count(*) FROM users WHERE id = ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public SavedProductsBatchResult applyBatch(Long userId, long[] productIdsToSave, long[] productIdsToRemove) {
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(APPLY_BATCH_SQL);
+            statement.setLong(1, userId);
+            statement.setArray(2, bigintArray(connection, productIdsToRemove));
+            statement.setLong(3, userId);
+            statement.setArray(4, bigintArray(connection, productIdsToSave));
+            statement.setLong(5, userId);
+            statement.setLong(6, userId);
+            return statement;
+        }, resultSet -> {
+            long[] added = new long[productIdsToSave.length];
+            long[] removed = new long[productIdsToRemove.length];
+            int addedCount = 0;
+            int removedCount = 0;
+            long countBefore = 0;
+            boolean userExists = false;
+
+            while (resultSet.next()) {
+                long value = resultSet.getLong(2);
+                switch (resultSet.getString(1)) {
+                    case "A" -> added[addedCount++] = value;
+                    case "R" -> removed[removedCount++] = value;
+                    case "C" -> countBefore = value;
+                    default -> userExists = value > 0;
+                }
+            }
+            if (!userExists) {
+                throw new DataIntegrityViolationException("User not found");
+            }
+
+            return new SavedProductsBatchResult(
+                    Arrays.copyOf(added, addedCount),
+                    Arrays.copyOf(removed, removedCount),
+                    countBefore + addedCount - removedCount);
+        });
+    }
+
+    private static Array bigintArray(Connection connection, long[] values) throws SQLException {
+        return connection.createArrayOf("bigint", Arrays.stream(values).boxed().toArray());
+    }
+}
\ No newline at end of file
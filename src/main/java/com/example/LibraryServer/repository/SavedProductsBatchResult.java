@@ -0,0 +1,13 @@
+package com.example.LibraryServer.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class SavedProductsBatchResult {
+
+    private final long[] addedProductIds;
+    private final long[] removedProductIds;
+    private final long savedProductsCount;
+}
\ No newline at end of file
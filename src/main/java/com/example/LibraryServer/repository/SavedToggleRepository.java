@@ -0,0 +1,50 @@
+package com.example.LibraryServer.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class SavedToggleRepository {
+
+    // skips rows whose user or product has gone since the toggle was acknowledged, instead of failing the batch
+    private static final String INSERT_SQL = "INSERT INTO user_saved_products (user_id, product_id, saved_at) " +
+            "SELECT ?, ?, ? WHERE EXISTS (SELECT 1 FROM users WHERE id = ?) " +
+            "AND EXISTS (SELECT 1 FROM products WHERE id = ?) ON CONFLICT DO NOTHING";
+    private static final String DELETE_SQL = "DELETE FROM user_saved_products WHERE user_id = ? AND product_id = ?";
+
+    private static final Comparator<Toggle> KEY_ORDER =
+            Comparator.comparingLong(Toggle::userId).thenComparingLong(Toggle::productId);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record Toggle(long userId, long productId, boolean saved, LocalDateTime savedAt) {
+    }
+
+    // key order keeps concurrent flushes from several instances from deadlocking on row locks
+    public void apply(List<Toggle> toggles) {
+        List<Object[]> inserts = new ArrayList<>();
+        List<Object[]> deletes = new ArrayList<>();
+        toggles.stream().sorted(KEY_ORDER).forEach(toggle -> {
+            if (toggle.saved()) {
+                inserts.add(new Object[]{toggle.userId(), toggle.productId(), Timestamp.valueOf(toggle.savedAt()),
+                        toggle.userId(), toggle.productId()});
+            } else {
+                deletes.add(new Object[]{toggle.userId(), toggle.productId()});
+            }
+        });
+
+        if (!deletes.isEmpty()) {
+            jdbcTemplate.batchUpdate(DELETE_SQL, deletes);
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, inserts);
+        }
+    }
+}
\ No newline at end of file
@@ -1,11 +1,14 @@
 package com.example.LibraryServer.repository;
 
 import com.example.LibraryServer.model.User;
-import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -13,11 +16,19 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     Optional<User> findByEmail(String email);
 
+    Optional<UserSummary> findSummaryById(Long id);
+
+    List<UserSummary> findSummariesByIdIn(Collection<Long> ids);
+
+    @Query("SELECT u.savedProductsCount FROM User u WHERE u.id = :id")
+    Optional<Long> findSavedProductsCountById(@Param("id") Long id);
+
     boolean existsByEmail(String email);
 
     boolean existsByUsername(String username);
 
-    @Override
-    @EntityGraph(attributePaths = {"savedProducts"})
-    Optional<User> findById(Long id);
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.id = :id")
+    int updatePassword(@Param("id") Long id, @Param("password") String password);
 }
\ No newline at end of file
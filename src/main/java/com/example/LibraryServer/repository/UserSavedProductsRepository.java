@@ -8,24 +8,51 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
-import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
 
 @Repository
-public interface UserSavedProductsRepository extends JpaRepository<UserSavedProducts, UserSavedProductsId> {
+public interface UserSavedProductsRepository extends JpaRepository<UserSavedProducts, UserSavedProductsId>,
+        SavedProductsBatchRepository {
 
-    List<UserSavedProducts> findByUserId(Long userId);
+    boolean existsByUserIdAndProductId(Long userId, Long productId);
 
-    Optional<UserSavedProducts> findByUserIdAndProductId(Long userId, Long productId);
+    @Query("SELECT usp.product FROM UserSavedProducts usp WHERE usp.user.id = :userId")
+    List<Product> findProductsByUserId(@Param("userId") Long userId);
 
-    @Transactional
     @Modifying
-    @Query("DELETE FROM UserSavedProducts usp WHERE usp.user.id = :userId AND usp.product.id = :productId")
-    void deleteByUserIdAndProductId(@Param("userId") Long userId, @Param("productId") Long productId);
+    @Query(value = "INSERT INTO user_saved_products (user_id, product_id, saved_at) " +
+            "VALUES (:userId, :productId, now()) ON CONFLICT DO NOTHING",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("userId") Long userId, @Param("productId") Long productId);
 
-    boolean existsByUserIdAndProductId(Long userId, Long productId);
+    @Modifying
+    @Query(value = "DELETE FROM user_saved_products WHERE user_id = :userId AND product_id = :productId",
+            nativeQuery = true)
+    int deleteIfPresent(@Param("userId") Long userId, @Param("productId") Long productId);
 
-    @Query("SELECT usp.product FROM UserSavedProducts usp WHERE usp.user.id = :userId")
-    List<Product> findProductsByUserId(@Param("userId") Long userId);
+    @Query(value = "SELECT product_id FROM user_saved_products WHERE user_id = :userId ORDER BY saved_at, product_id",
+            nativeQuery = true)
+    List<Long> findProductIdsByUserId(@Param("userId") Long userId);
+
+    @Query(value = "SELECT user_id AS \"userId\", product_id AS \"productId\" FROM user_saved_products " +
+            "WHERE user_id IN (:userIds) ORDER BY user_id, saved_at, product_id",
+            nativeQuery = true)
+    List<SavedProductRow> findProductIdsByUserIdIn(@Param("userIds") Collection<Long> userIds);
+
+    // Newest-first keyset pages, answered from idx_user_saved_products_feed alone (index-only scan).
+    @Query(value = "SELECT product_id AS \"productId\", saved_at AS \"savedAt\" FROM user_saved_products " +
+            "WHERE user_id = :userId ORDER BY saved_at DESC, product_id DESC LIMIT :limit",
+            nativeQuery = true)
+    List<SavedProductEntry> findFeedStart(@Param("userId") Long userId, @Param("limit") int limit);
+
+    @Query(value = "SELECT product_id AS \"productId\", saved_at AS \"savedAt\" FROM user_saved_products " +
+            "WHERE user_id = :userId AND (saved_at, product_id) < (:savedAt, :productId) " +
+            "ORDER BY saved_at DESC, product_id DESC LIMIT :limit",
+            nativeQuery = true)
+    List<SavedProductEntry> findFeedAfter(@Param("userId") Long userId,
+                                          @Param("savedAt") LocalDateTime savedAt,
+                                          @Param("productId") Long productId,
+                                          @Param("limit") int limit);
 }
\ No newline at end of file
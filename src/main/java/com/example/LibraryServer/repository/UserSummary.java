@@ -0,0 +1,14 @@
+package com.example.LibraryServer.repository;
+
+public interface UserSummary {
+
+    Long getId();
+
+    String getUsername();
+
+    String getName();
+
+    String getEmail();
+
+    String getPhone();
+}
\ No newline at end of file
@@ -0,0 +1,320 @@
+package com.example.LibraryServer.search;
+
+import com.example.LibraryServer.model.Product;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+@Component
+public class ProductSearchIndex {
+
+    private static final float NAME_BOOST = 3f;
+    private static final float CATEGORY_BOOST = 2f;
+    private static final float DESCRIPTION_BOOST = 1f;
+
+    private static final float PREFIX_MATCH_WEIGHT = 0.7f;
+    private static final float FUZZY_MATCH_WEIGHT = 0.5f;
+    private static final double MIN_TRIGRAM_SIMILARITY = 0.4;
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MIN_FUZZY_LENGTH = 3;
+    private static final int MAX_EXPANSIONS = 64;
+    private static final float TERM_SATURATION = 1.2f;
+
+    private static final Comparator<Map.Entry<Long, Float>> WORST_FIRST = (a, b) -> {
+        int byScore = Float.compare(a.getValue(), b.getValue());
+        return byScore != 0 ? byScore : Long.compare(b.getKey(), a.getKey());
+    };
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Segment segment = new Segment();
+    private List<Consumer<Segment>> changesDuringRebuild;
+    private volatile boolean ready;
+
+    public record Hits(int total, List<Long> productIds) {
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return segment.documentTerms.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void index(Product product) {
+        long id = product.getId();
+        Map<String, Float> weights = analyze(product);
+
+        lock.writeLock().lock();
+        try {
+            segment.put(id, weights);
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.add(target -> target.put(id, weights));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long productId) {
+        lock.writeLock().lock();
+        try {
+            segment.remove(productId);
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.add(target -> target.remove(productId));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Hits search(List<String> tokens, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            Map<Long, Float> scores = null;
+            for (String token : tokens) {
+                Map<Long, Float> tokenScores = scoreToken(token);
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    scores.keySet().retainAll(tokenScores.keySet());
+                    scores.replaceAll((id, score) -> score + tokenScores.get(id));
+                }
+                if (scores.isEmpty()) {
+                    break;
+                }
+            }
+
+            if (scores == null || scores.isEmpty()) {
+                return new Hits(0, List.of());
+            }
+
+            return new Hits(scores.size(), rank(scores, offset, limit));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Rebuild beginRebuild() {
+        lock.writeLock().lock();
+        try {
+            changesDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return new Rebuild();
+    }
+
+    public final class Rebuild {
+
+        private final Segment target = new Segment();
+
+        private Rebuild() {
+        }
+
+        public void add(Product product) {
+            target.put(product.getId(), analyze(product));
+        }
+
+        public void complete() {
+            lock.writeLock().lock();
+            try {
+                changesDuringRebuild.forEach(change -> change.accept(target));
+                changesDuringRebuild = null;
+                segment = target;
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        public void abort() {
+            lock.writeLock().lock();
+            try {
+                changesDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private Map<Long, Float> scoreToken(String token) {
+        Map<Long, Float> tokenScores = new HashMap<>();
+        int documentCount = segment.documentTerms.size();
+
+        expand(token).forEach((term, matchWeight) -> {
+            Postings postings = segment.postings.get(term);
+            float idf = (float) Math.log(1 + (documentCount - postings.size + 0.5) / (postings.size + 0.5));
+            for (int i = 0; i < postings.size; i++) {
+                float weight = postings.weights[i];
+                float score = matchWeight * idf * weight / (weight + TERM_SATURATION);
+                tokenScores.merge(postings.ids[i], score, Float::max);
+            }
+        });
+
+        return tokenScores;
+    }
+
+    private Map<String, Float> expand(String token) {
+        Map<String, Float> expansions = new HashMap<>();
+        if (segment.postings.containsKey(token)) {
+            expansions.put(token, 1f);
+        }
+
+        if (token.length() >= MIN_PREFIX_LENGTH) {
+            for (String term : segment.postings.subMap(token, false, token + Character.MAX_VALUE, true).keySet()) {
+                if (expansions.size() >= MAX_EXPANSIONS) {
+                    break;
+                }
+                expansions.put(term, PREFIX_MATCH_WEIGHT);
+            }
+        }
+
+        if (expansions.isEmpty() && token.length() >= MIN_FUZZY_LENGTH) {
+            Set<String> tokenTrigrams = SearchTokenizer.trigrams(token);
+            Map<String, Integer> shared = new HashMap<>();
+            for (String trigram : tokenTrigrams) {
+                for (String term : segment.trigrams.getOrDefault(trigram, Set.of())) {
+                    shared.merge(term, 1, Integer::sum);
+                }
+            }
+
+            shared.entrySet().stream()
+                    .map(entry -> Map.entry(entry.getKey(), similarity(tokenTrigrams.size(), entry)))
+                    .filter(entry -> entry.getValue() >= MIN_TRIGRAM_SIMILARITY)
+                    .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
+                    .limit(MAX_EXPANSIONS)
+                    .forEach(entry -> expansions.put(entry.getKey(), (float) (FUZZY_MATCH_WEIGHT * entry.getValue())));
+        }
+
+        return expansions;
+    }
+
+    private static double similarity(int tokenTrigramCount, Map.Entry<String, Integer> candidate) {
+        int termTrigramCount = SearchTokenizer.trigrams(candidate.getKey()).size();
+        int common = candidate.getValue();
+        return (double) common / (tokenTrigramCount + termTrigramCount - common);
+    }
+
+    private static List<Long> rank(Map<Long, Float> scores, int offset, int limit) {
+        if (offset >= scores.size()) {
+            return List.of();
+        }
+
+        int wanted = (int) Math.min((long) offset + limit, scores.size());
+        PriorityQueue<Map.Entry<Long, Float>> top = new PriorityQueue<>(WORST_FIRST);
+        for (Map.Entry<Long, Float> entry : scores.entrySet()) {
+            top.offer(entry);
+            if (top.size() > wanted) {
+                top.poll();
+            }
+        }
+
+        List<Long> ranked = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            ranked.add(top.poll().getKey());
+        }
+        Collections.reverse(ranked);
+
+        return ranked.subList(offset, ranked.size());
+    }
+
+    private static Map<String, Float> analyze(Product product) {
+        Map<String, Float> weights = new HashMap<>();
+        addField(weights, product.getName(), NAME_BOOST);
+        addField(weights, product.getCategory(), CATEGORY_BOOST);
+        addField(weights, product.getDescription(), DESCRIPTION_BOOST);
+        return weights;
+    }
+
+    private static void addField(Map<String, Float> weights, String text, float boost) {
+        for (String token : SearchTokenizer.tokenize(text)) {
+            weights.merge(token, boost, Float::sum);
+        }
+    }
+
+    private static final class Segment {
+
+        private final TreeMap<String, Postings> postings = new TreeMap<>();
+        private final Map<String, Set<String>> trigrams = new HashMap<>();
+        private final Map<Long, String[]> documentTerms = new HashMap<>();
+
+        void put(long id, Map<String, Float> weights) {
+            remove(id);
+            weights.forEach((term, weight) -> postings.computeIfAbsent(term, this::newTerm).add(id, weight));
+            documentTerms.put(id, weights.keySet().toArray(String[]::new));
+        }
+
+        void remove(long id) {
+            String[] terms = documentTerms.remove(id);
+            if (terms == null) {
+                return;
+            }
+
+            for (String term : terms) {
+                Postings termPostings = postings.get(term);
+                if (termPostings != null && termPostings.remove(id) && termPostings.size == 0) {
+                    postings.remove(term);
+                    for (String trigram : SearchTokenizer.trigrams(term)) {
+                        Set<String> trigramTerms = trigrams.get(trigram);
+                        if (trigramTerms != null && trigramTerms.remove(term) && trigramTerms.isEmpty()) {
+                            trigrams.remove(trigram);
+                        }
+                    }
+                }
+            }
+        }
+
+        private Postings newTerm(String term) {
+            for (String trigram : SearchTokenizer.trigrams(term)) {
+                trigrams.computeIfAbsent(trigram, key -> new HashSet<>()).add(term);
+            }
+            return new Postings();
+        }
+    }
+
+    private static final class Postings {
+
+        private long[] ids = new long[4];
+        private float[] weights = new float[4];
+        private int size;
+
+        void add(long id, float weight) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            ids[size] = id;
+            weights[size] = weight;
+            size++;
+        }
+
+        boolean remove(long id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    size--;
+                    ids[i] = ids[size];
+                    weights[i] = weights[size];
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
\ No newline at end of file
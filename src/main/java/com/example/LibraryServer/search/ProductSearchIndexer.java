@@ -0,0 +1,92 @@
+package com.example.LibraryServer.search;
+
+import com.example.LibraryServer.event.ProductChangedEvent;
+import com.example.LibraryServer.event.ProductsImportedEvent;
+import com.example.LibraryServer.repository.ProductRepository;
+import com.example.LibraryServer.service.ProductService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductSearchIndexer {
+
+    private static final Duration RECONCILE_OVERLAP = Duration.ofMinutes(1);
+
+    private final ProductSearchIndex searchIndex;
+    private final ProductService productService;
+    private final ProductRepository productRepository;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private volatile LocalDateTime lastSyncedAt;
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        rebuild();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.isRemoved()) {
+            searchIndex.remove(event.getProductId());
+        } else {
+            searchIndex.index(event.getProduct());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsImported(ProductsImportedEvent event) {
+        event.getProducts().forEach(searchIndex::index);
+    }
+
+    @Scheduled(fixedDelayString = "${app.search.reconcile-interval-ms}",
+            initialDelayString = "${app.search.reconcile-interval-ms}")
+    public void reconcile() {
+        if (!searchIndex.isReady() || rebuilding.get()) {
+            return;
+        }
+
+        if (productRepository.count() != searchIndex.size()) {
+            log.info("Product search index is out of sync with the database, rebuilding");
+            rebuild();
+            return;
+        }
+
+        LocalDateTime startedAt = LocalDateTime.now();
+        productRepository.findByUpdatedAtAfter(lastSyncedAt.minus(RECONCILE_OVERLAP))
+                .forEach(searchIndex::index);
+        lastSyncedAt = startedAt;
+    }
+
+    void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+
+        ProductSearchIndex.Rebuild rebuild = searchIndex.beginRebuild();
+        try {
+            LocalDateTime startedAt = LocalDateTime.now();
+            long indexed = productService.exportProducts(rebuild::add);
+            rebuild.complete();
+            lastSyncedAt = startedAt;
+            log.info("Product search index built with {} products in {} ms",
+                    indexed, Duration.between(startedAt, LocalDateTime.now()).toMillis());
+        } catch (RuntimeException e) {
+            rebuild.abort();
+            log.error("Failed to build product search index", e);
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.example.LibraryServer.security;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import java.time.Duration;
+
+@Getter
+@AllArgsConstructor
+public class IssuedTokens {
+
+    private final String accessToken;
+    private final String refreshToken;
+    private final Duration accessTokenTtl;
+}
\ No newline at end of file
@@ -0,0 +1,38 @@
+package com.example.LibraryServer.security;
+
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import java.util.List;
+
+public class TokenAuthentication extends AbstractAuthenticationToken {
+
+    private final TokenClaims claims;
+
+    public TokenAuthentication(TokenClaims claims) {
+        super(List.of());
+        this.claims = claims;
+        setAuthenticated(true);
+    }
+
+    public long getUserId() {
+        return claims.userId();
+    }
+
+    public TokenClaims getClaims() {
+        return claims;
+    }
+
+    @Override
+    public Object getCredentials() {
+        return "";
+    }
+
+    @Override
+    public Object getPrincipal() {
+        return claims.userId();
+    }
+
+    @Override
+    public String getName() {
+        return Long.toString(claims.userId());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,42 @@
+package com.example.LibraryServer.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+import java.io.IOException;
+
+/**
+ * Authenticates "Authorization: Bearer" access tokens. Missing, invalid, expired or revoked tokens
+ * leave the request anonymous; the authorization rules decide whether that is enough.
+ */
+@RequiredArgsConstructor
+public class TokenAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER = "Bearer ";
+
+    private final TokenService tokenService;
+    private final TokenBlocklist blocklist;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            tokenService.verify(header.substring(BEARER.length()).trim(), TokenType.ACCESS)
+                    .filter(claims -> !blocklist.isRevoked(claims))
+                    .ifPresent(claims -> {
+                        SecurityContext context = SecurityContextHolder.createEmptyContext();
+                        context.setAuthentication(new TokenAuthentication(claims));
+                        SecurityContextHolder.setContext(context);
+                    });
+        }
+
+        chain.doFilter(request, response);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,93 @@
+package com.example.LibraryServer.security;
+
+import com.example.LibraryServer.repository.RevokedTokenRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Revoked token ids, each kept only until the token would have expired anyway.
+ * <p>
+ * Refresh tokens live for days, so their revocations go to the revoked_tokens table: they survive
+ * restarts, are shared by every instance and make refresh single use cluster-wide. Access tokens are
+ * checked on every request without a database lookup, so theirs stay in memory, per instance and
+ * bounded by blocklist-max-size: a restart, another instance or eviction under a flood of logouts lets
+ * a revoked access token through until it expires, at most access-ttl later.
+ */
+@Component
+@Slf4j
+public class TokenBlocklist {
+
+    private final Cache<String, Instant> revokedAccess;
+    private final RevokedTokenRepository revokedTokenRepository;
+
+    public TokenBlocklist(RevokedTokenRepository revokedTokenRepository, MeterRegistry meterRegistry,
+                          @Value("${app.security.token.blocklist-max-size}") long maxSize) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.revokedAccess = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, Instant>() {
+                    @Override
+                    public long expireAfterCreate(String tokenId, Instant expiresAt, long currentTime) {
+                        return Duration.between(Instant.now(), expiresAt).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String tokenId, Instant expiresAt, long currentTime,
+                                                  long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String tokenId, Instant expiresAt, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+        meterRegistry.gauge("auth.token.blocklist.size", revokedAccess, cache -> cache.estimatedSize());
+    }
+
+    public void revoke(TokenClaims claims) {
+        revokeIfFirst(claims);
+    }
+
+    /**
+     * Atomic check-and-revoke: of several callers presenting the same token only one gets true, which
+     * makes it the gate for single-use tokens.
+     *
+     * @return true when this call revoked the token, false when it was revoked already or has expired
+     */
+    public boolean revokeIfFirst(TokenClaims claims) {
+        if (!claims.expiresAt().isAfter(Instant.now())) {
+            return false;
+        }
+        if (claims.type() == TokenType.REFRESH) {
+            return revokedTokenRepository.revoke(claims.tokenId(), claims.expiresAt());
+        }
+        return revokedAccess.asMap().putIfAbsent(claims.tokenId(), claims.expiresAt()) == null;
+    }
+
+    public boolean isRevoked(TokenClaims claims) {
+        if (claims.type() == TokenType.REFRESH) {
+            return revokedTokenRepository.isRevoked(claims.tokenId());
+        }
+        return revokedAccess.getIfPresent(claims.tokenId()) != null;
+    }
+
+    @Scheduled(fixedDelayString = "${app.security.token.purge-interval-ms}",
+            initialDelayString = "${app.security.token.purge-interval-ms}")
+    public void purgeExpired() {
+        int purged = revokedTokenRepository.deleteExpired(Instant.now());
+        if (purged > 0) {
+            log.debug("Purged {} expired refresh token revocations", purged);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,6 @@
+package com.example.LibraryServer.security;
+
+import java.time.Instant;
+
+public record TokenClaims(long userId, String tokenId, TokenType type, Instant expiresAt) {
+}
\ No newline at end of file
@@ -0,0 +1,127 @@
+package com.example.LibraryServer.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Issues and verifies compact HMAC-SHA256 tokens: base64url("userId:tokenId:type:expiresAt") + "." +
+ * base64url(signature). Verification is a single MAC over the payload, with no database access.
+ */
+@Service
+@Slf4j
+public class TokenService {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MIN_SECRET_BYTES = 32;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final Mac prototype;
+    private final SecureRandom random = new SecureRandom();
+    private final Duration accessTokenTtl;
+    private final Duration refreshTokenTtl;
+
+    public TokenService(@Value("${app.security.token.secret}") String secret,
+                        @Value("${app.security.token.access-ttl}") Duration accessTokenTtl,
+                        @Value("${app.security.token.refresh-ttl}") Duration refreshTokenTtl) {
+        this.accessTokenTtl = accessTokenTtl;
+        this.refreshTokenTtl = refreshTokenTtl;
+        this.prototype = mac(key(secret));
+    }
+
+    public IssuedTokens issue(long userId) {
+        Instant now = Instant.now();
+        return new IssuedTokens(
+                sign(userId, TokenType.ACCESS, now.plus(accessTokenTtl)),
+                sign(userId, TokenType.REFRESH, now.plus(refreshTokenTtl)),
+                accessTokenTtl);
+    }
+
+    public Optional<TokenClaims> verify(String token, TokenType expectedType) {
+        int dot = token.indexOf('.');
+        if (dot <= 0 || dot != token.lastIndexOf('.')) {
+            return Optional.empty();
+        }
+
+        try {
+            String payload = token.substring(0, dot);
+            byte[] signature = DECODER.decode(token.substring(dot + 1));
+            if (!MessageDigest.isEqual(signature, hmac(payload))) {
+                return Optional.empty();
+            }
+
+            String[] parts = new String(DECODER.decode(payload), StandardCharsets.UTF_8).split(":");
+            if (parts.length != 4) {
+                return Optional.empty();
+            }
+
+            TokenClaims claims = new TokenClaims(Long.parseLong(parts[0]), parts[1],
+                    TokenType.fromCode(parts[2]), Instant.ofEpochSecond(Long.parseLong(parts[3])));
+            if (claims.type() != expectedType || !claims.expiresAt().isAfter(Instant.now())) {
+                return Optional.empty();
+            }
+            return Optional.of(claims);
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    private String sign(long userId, TokenType type, Instant expiresAt) {
+        byte[] id = new byte[12];
+        random.nextBytes(id);
+
+        String claims = userId + ":" + HexFormat.of().formatHex(id) + ":" + type.code() + ":"
+                + expiresAt.getEpochSecond();
+        String payload = ENCODER.encodeToString(claims.getBytes(StandardCharsets.UTF_8));
+        return payload + "." + ENCODER.encodeToString(hmac(payload));
+    }
+
+    // Mac instances are not thread-safe; cloning the keyed prototype skips provider lookup and key setup
+    private byte[] hmac(String payload) {
+        try {
+            Mac mac = (Mac) prototype.clone();
+            return mac.doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("HMAC provider does not support cloning", e);
+        }
+    }
+
+    private static byte[] key(String secret) {
+        if (secret == null || secret.isBlank()) {
+            log.warn("app.security.token.secret is not set; using a random key, tokens will not survive a restart");
+            byte[] key = new byte[MIN_SECRET_BYTES];
+            new SecureRandom().nextBytes(key);
+            return key;
+        }
+
+        byte[] key = Base64.getDecoder().decode(secret.trim());
+        if (key.length < MIN_SECRET_BYTES) {
+            throw new IllegalStateException("app.security.token.secret must be at least "
+                    + MIN_SECRET_BYTES + " bytes, base64-encoded");
+        }
+        return key;
+    }
+
+    private static Mac mac(byte[] key) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(new SecretKeySpec(key, ALGORITHM));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot initialise " + ALGORITHM, e);
+        }
+    }
+}
\ No newline at end of file
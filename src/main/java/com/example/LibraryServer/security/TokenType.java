@@ -0,0 +1,25 @@
+package com.example.LibraryServer.security;
+
+public enum TokenType {
+    ACCESS("a"),
+    REFRESH("r");
+
+    private final String code;
+
+    TokenType(String code) {
+        this.code = code;
+    }
+
+    String code() {
+        return code;
+    }
+
+    static TokenType fromCode(String code) {
+        for (TokenType type : values()) {
+            if (type.code.equals(code)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown token type: " + code);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,8 @@
+package com.example.LibraryServer.service;
+
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    public PasswordHashingRejectedException(String message) {
+        super(message);
+    }
+}
\ No newline at end of file
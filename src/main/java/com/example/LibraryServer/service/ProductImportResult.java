@@ -0,0 +1,15 @@
+package com.example.LibraryServer.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class ProductImportResult {
+
+    private final long imported;
+    private final long skipped;
+    private final List<String> errors;
+    private final long durationMs;
+}
\ No newline at end of file
@@ -0,0 +1,198 @@
+package com.example.LibraryServer.service;
+
+import com.example.LibraryServer.dto.ProductDTO;
+import com.example.LibraryServer.event.ProductChangeListener;
+import com.example.LibraryServer.event.ProductsImportedEvent;
+import com.example.LibraryServer.model.Product;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+@Service
+@Slf4j
+public class ProductImportService {
+
+    private static final int MAX_REPORTED_ERRORS = 20;
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductChangeListener productChangeListener;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final int chunkSize;
+
+    public ProductImportService(EntityManager entityManager,
+                                TransactionTemplate transactionTemplate,
+                                ProductChangeListener productChangeListener,
+                                ApplicationEventPublisher eventPublisher,
+                                ObjectMapper objectMapper,
+                                @Value("${app.catalog.import.enabled}") boolean enabled,
+                                @Value("${app.catalog.import.chunk-size}") int chunkSize) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.productChangeListener = productChangeListener;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.chunkSize = chunkSize;
+    }
+
+    public ProductImportResult importCsv(InputStream input) throws IOException {
+        ChunkWriter writer = start();
+
+        try (CsvReader csv = new CsvReader(new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8)))) {
+            List<String> header = csv.readRecord();
+            if (header == null) {
+                return writer.finish();
+            }
+
+            Map<String, Integer> columns = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+            }
+            if (!columns.containsKey("name") || !columns.containsKey("price")) {
+                throw new IllegalArgumentException("CSV header must contain name and price columns");
+            }
+
+            long line = 1;
+            List<String> record;
+            while ((record = csv.readRecord()) != null) {
+                line++;
+                if (record.size() == 1 && record.get(0).isBlank()) {
+                    continue;
+                }
+
+                try {
+                    String available = column(record, columns, "is_available");
+                    writer.add(toProduct(
+                            column(record, columns, "name"),
+                            column(record, columns, "description"),
+                            Double.valueOf(column(record, columns, "price")),
+                            column(record, columns, "category"),
+                            column(record, columns, "image_url"),
+                            available == null || available.isBlank() ? null : Boolean.valueOf(available)));
+                } catch (RuntimeException e) {
+                    writer.skip("line " + line + ": " + e.getMessage());
+                }
+            }
+        }
+
+        return writer.finish();
+    }
+
+    public ProductImportResult importJson(InputStream input) throws IOException {
+        ChunkWriter writer = start();
+
+        try (MappingIterator<ProductDTO> products = objectMapper.readerFor(ProductDTO.class).readValues(input)) {
+            long index = 0;
+            while (products.hasNextValue()) {
+                ProductDTO product = products.nextValue();
+                index++;
+
+                try {
+                    writer.add(toProduct(product.getName(), product.getDescription(), product.getPrice(),
+                            product.getCategory(), product.getImageUrl(), product.getIsAvailable()));
+                } catch (RuntimeException e) {
+                    writer.skip("item " + index + ": " + e.getMessage());
+                }
+            }
+        }
+
+        return writer.finish();
+    }
+
+    private ChunkWriter start() {
+        if (!enabled) {
+            throw new IllegalStateException("Product import is disabled");
+        }
+        return new ChunkWriter();
+    }
+
+    private static String column(List<String> record, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        return index == null || index >= record.size() ? null : record.get(index);
+    }
+
+    private static Product toProduct(String name, String description, Double price, String category,
+                                     String imageUrl, Boolean isAvailable) {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("name is required");
+        }
+        if (price == null) {
+            throw new IllegalArgumentException("price is required");
+        }
+
+        return Product.builder()
+                .name(name)
+                .description(description)
+                .price(price)
+                .category(category)
+                .imageUrl(imageUrl)
+                .isAvailable(isAvailable == null ? Boolean.TRUE : isAvailable)
+                .build();
+    }
+
+    private class ChunkWriter {
+
+        private final long startedAt = System.nanoTime();
+        private final List<Product> chunk = new ArrayList<>(chunkSize);
+        private final List<String> errors = new ArrayList<>();
+        private long imported;
+        private long skipped;
+
+        void add(Product product) {
+            chunk.add(product);
+            if (chunk.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        void skip(String error) {
+            skipped++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(error);
+            }
+        }
+
+        ProductImportResult finish() {
+            flush();
+            long durationMs = (System.nanoTime() - startedAt) / 1_000_000;
+            log.info("Imported {} products ({} skipped) in {} ms", imported, skipped, durationMs);
+            return new ProductImportResult(imported, skipped, errors, durationMs);
+        }
+
+        private void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+
+            // one catalog-level event per chunk, delivered after it commits, instead of one per row
+            transactionTemplate.executeWithoutResult(status -> {
+                productChangeListener.withoutEvents(() -> {
+                    chunk.forEach(entityManager::persist);
+                    entityManager.flush();
+                });
+                entityManager.clear();
+                eventPublisher.publishEvent(new ProductsImportedEvent(List.copyOf(chunk)));
+            });
+            imported += chunk.size();
+            chunk.clear();
+        }
+    }
+}
\ No newline at end of file
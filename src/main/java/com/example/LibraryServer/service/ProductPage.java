@@ -0,0 +1,18 @@
+package com.example.LibraryServer.service;
+
+import com.example.LibraryServer.model.Product;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class ProductPage {
+
+    private final List<Product> products;
+    private final String nextCursor;
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.example.LibraryServer.service;
+
+import com.example.LibraryServer.model.Product;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class ProductSearchResult {
+
+    public enum Source {
+        INDEX,
+        DATABASE
+    }
+
+    private final List<Product> products;
+    private final long total;
+    private final Source source;
+}
\ No newline at end of file
@@ -0,0 +1,74 @@
+package com.example.LibraryServer.service;
+
+import com.example.LibraryServer.model.Product;
+import com.example.LibraryServer.repository.ProductRepository;
+import com.example.LibraryServer.search.ProductSearchIndex;
+import com.example.LibraryServer.search.SearchTokenizer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductSearchService {
+
+    public static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_QUERY_TOKENS = 8;
+
+    private final ProductSearchIndex searchIndex;
+    private final ProductRepository productRepository;
+
+    @Transactional(readOnly = true)
+    public ProductSearchResult search(String query, int page, int size) {
+        List<String> tokens = SearchTokenizer.tokenize(query);
+        if (tokens.isEmpty()) {
+            throw new IllegalArgumentException("Search query must contain letters or digits");
+        }
+        if (tokens.size() > MAX_QUERY_TOKENS) {
+            tokens = tokens.subList(0, MAX_QUERY_TOKENS);
+        }
+
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        // a page far enough out to overflow int is past any result set; clamped, it just comes back empty
+        int offset = (int) Math.min((long) Math.max(0, page) * pageSize, Integer.MAX_VALUE);
+
+        if (searchIndex.isReady()) {
+            ProductSearchIndex.Hits hits = searchIndex.search(tokens, offset, pageSize);
+            return new ProductSearchResult(loadInOrder(hits.productIds()), hits.total(),
+                    ProductSearchResult.Source.INDEX);
+        }
+
+        log.debug("Product search index is cold, falling back to database full-text search");
+        String tsQuery = tokens.stream()
+                .map(token -> token + ":*")
+                .collect(Collectors.joining(" & "));
+
+        long total = productRepository.countFullTextSearch(tsQuery);
+        List<Product> products = offset >= total
+                ? List.of()
+                : productRepository.fullTextSearch(tsQuery, pageSize, offset);
+
+        return new ProductSearchResult(products, total, ProductSearchResult.Source.DATABASE);
+    }
+
+    private List<Product> loadInOrder(List<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Product> byId = productRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        return productIds.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+}
\ No newline at end of file
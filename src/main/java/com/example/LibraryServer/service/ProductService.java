@@ -1,35 +1,143 @@
 package com.example.LibraryServer.service;
 
+import com.example.LibraryServer.cache.BatchLoader;
+import com.example.LibraryServer.cache.ProductCache;
+import com.example.LibraryServer.cache.SavedProductCounters;
+import com.example.LibraryServer.cursor.ProductCursor;
+import com.example.LibraryServer.dto.ProductFilter;
 import com.example.LibraryServer.model.Product;
+import com.example.LibraryServer.repository.CatalogVersion;
 import com.example.LibraryServer.repository.ProductRepository;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class ProductService {
 
+    public static final int MAX_PAGE_SIZE = 200;
+
     private final ProductRepository productRepository;
+    private final EntityManager entityManager;
+    private final ProductCache productCache;
+    private final SavedProductCounters savedProductCounters;
+    private final TransactionTemplate readOnlyTransaction;
+    private final BatchLoader<Long, Product> productBatches;
+
+    public ProductService(ProductRepository productRepository,
+                          EntityManager entityManager,
+                          ProductCache productCache,
+                          SavedProductCounters savedProductCounters,
+                          PlatformTransactionManager transactionManager,
+                          MeterRegistry meterRegistry,
+                          @Value("${app.coalescing.batch-window}") Duration batchWindow,
+                          @Value("${app.coalescing.max-batch-size}") int maxBatchSize) {
+        this.productRepository = productRepository;
+        this.entityManager = entityManager;
+        this.productCache = productCache;
+        this.savedProductCounters = savedProductCounters;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.productBatches = new BatchLoader<>("products", batchWindow, maxBatchSize, this::loadProducts, meterRegistry);
+    }
 
     @Transactional(readOnly = true)
     public List<Product> getAllProducts() {
-        log.info("Fetching all products from database");
+        log.debug("Fetching all products from database");
         return productRepository.findAll();
     }
 
-    @Transactional(readOnly = true)
+    // The async cache already shares one load per id; misses for different ids are batched below it
     public Optional<Product> getProductById(Long id) {
-        log.info("Fetching product with id: {}", id);
-        return productRepository.findById(id);
+        return productCache.getProduct(id, key -> {
+            log.debug("Fetching product with id: {}", key);
+            return Optional.ofNullable(productBatches.get(key));
+        });
+    }
+
+    public CatalogVersion getCatalogVersion() {
+        return productCache.getCatalogVersion(productRepository::findCatalogVersion);
+    }
+
+    /** Bypasses the cached version, for callers that must see writes made outside this instance. */
+    public CatalogVersion loadCatalogVersion() {
+        return productRepository.findCatalogVersion();
+    }
+
+    public Optional<LocalDateTime> getProductVersion(Long id) {
+        return productCache.getCachedProduct(id)
+                .map(Product::getUpdatedAt)
+                .or(() -> productRepository.findUpdatedAtById(id));
     }
 
     @Transactional(readOnly = true)
     public List<Product> getAvailableProducts() {
         return productRepository.findByIsAvailableTrue();
     }
+
+    public List<Product> getMostSavedProducts(int limit) {
+        return savedProductCounters.getMostSaved(limit);
+    }
+
+    @Transactional(readOnly = true)
+    public ProductPage getProductPage(ProductFilter filter, String cursor, int size) {
+        if (filter.getMinPrice() != null && filter.getMaxPrice() != null
+                && filter.getMinPrice() > filter.getMaxPrice()) {
+            throw new IllegalArgumentException("minPrice must not be greater than maxPrice");
+        }
+
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        ProductCursor after = ProductCursor.decode(cursor, filter.getSort());
+        List<Product> products = productRepository.findPage(filter, after.getPrice(), after.getId(), pageSize + 1);
+
+        if (products.size() <= pageSize) {
+            return new ProductPage(products, null);
+        }
+
+        List<Product> page = products.subList(0, pageSize);
+        Product last = page.get(pageSize - 1);
+        String nextCursor = new ProductCursor(last.getPrice(), last.getId()).encode(filter.getSort());
+        return new ProductPage(page, nextCursor);
+    }
+
+    @Transactional(readOnly = true)
+    public long exportProducts(Consumer<Product> sink) {
+        long exported = 0;
+
+        try (Stream<Product> products = productRepository.streamAllOrderById()) {
+            Iterator<Product> iterator = products.iterator();
+            while (iterator.hasNext()) {
+                Product product = iterator.next();
+                sink.accept(product);
+                entityManager.detach(product);
+                exported++;
+            }
+        }
+
+        log.debug("Exported {} products", exported);
+        return exported;
+    }
+
+    // batches load on a loader thread outside any request transaction; read-only lets them use a replica
+    private Map<Long, Product> loadProducts(Collection<Long> ids) {
+        return readOnlyTransaction.execute(status -> productRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity())));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,27 @@
+package com.example.LibraryServer.service;
+
+import com.example.LibraryServer.model.Product;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class SavedProductsFeed {
+
+    private final List<Item> items;
+    private final String nextCursor;
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Item {
+
+        private final Product product;
+        private final LocalDateTime savedAt;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,38 @@
+package com.example.LibraryServer.service;
+
+import com.example.LibraryServer.model.User;
+import com.example.LibraryServer.repository.UserSummary;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class UserProfile {
+
+    private static final long[] NO_PRODUCTS = new long[0];
+
+    private final Long id;
+    private final String username;
+    private final String name;
+    private final String email;
+    private final String phone;
+    private final long[] savedProductIds;
+
+    public static UserProfile of(UserSummary user, long[] savedProductIds) {
+        return new UserProfile(user.getId(), user.getUsername(), user.getName(),
+                user.getEmail(), user.getPhone(), savedProductIds);
+    }
+
+    public static UserProfile of(User user, long[] savedProductIds) {
+        return new UserProfile(user.getId(), user.getUsername(), user.getName(),
+                user.getEmail(), user.getPhone(), savedProductIds);
+    }
+
+    public static UserProfile withoutSavedProducts(User user) {
+        return of(user, NO_PRODUCTS);
+    }
+
+    public int getSavedProductsCount() {
+        return savedProductIds.length;
+    }
+}
\ No newline at end of file
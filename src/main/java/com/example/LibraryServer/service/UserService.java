@@ -1,102 +1,200 @@
 package com.example.LibraryServer.service;
 
+import com.example.LibraryServer.cache.BatchLoader;
+import com.example.LibraryServer.cache.SavedProductCounters;
+import com.example.LibraryServer.cache.SavedProductsIndex;
+import com.example.LibraryServer.cache.SingleFlight;
+import com.example.LibraryServer.cursor.SavedProductsCursor;
+import com.example.LibraryServer.datasource.ReadYourWrites;
+import com.example.LibraryServer.dto.SavedProductOperation;
+import com.example.LibraryServer.event.SavedProductChangedEvent;
+import com.example.LibraryServer.journal.SavedProductsWriteBehind;
 import com.example.LibraryServer.model.Product;
 import com.example.LibraryServer.model.User;
-import com.example.LibraryServer.model.UserSavedProducts;
 import com.example.LibraryServer.repository.ProductRepository;
+import com.example.LibraryServer.repository.SavedProductEntry;
+import com.example.LibraryServer.repository.SavedProductRow;
+import com.example.LibraryServer.repository.SavedProductsBatchResult;
 import com.example.LibraryServer.repository.UserSavedProductsRepository;
 import com.example.LibraryServer.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
+import com.example.LibraryServer.repository.UserSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
-import java.time.LocalDateTime;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class UserService {
 
+    public static final int MAX_FEED_PAGE_SIZE = 100;
+
     private final UserRepository userRepository;
     private final ProductRepository productRepository;
     private final UserSavedProductsRepository userSavedProductsRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
+    private final SavedProductsIndex savedProductsIndex;
+    private final SavedProductCounters savedProductCounters;
+    private final SavedProductsWriteBehind savedProductsWriteBehind;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transaction;
+    private final TransactionTemplate readOnlyTransaction;
+    private final SingleFlight<Long, UserProfile> profileFlights;
+    private final BatchLoader<Long, UserProfile> profileBatches;
 
-    @Transactional(readOnly = true)
-    public Optional<User> getUserById(Long id) {
-        return userRepository.findById(id)
-                .map(user -> {
-                    user.getSavedProducts().size();
-                    return user;
-                });
+    public UserService(UserRepository userRepository,
+                       ProductRepository productRepository,
+                       UserSavedProductsRepository userSavedProductsRepository,
+                       PasswordHashingService passwordHashingService,
+                       SavedProductsIndex savedProductsIndex,
+                       SavedProductCounters savedProductCounters,
+                       SavedProductsWriteBehind savedProductsWriteBehind,
+                       ApplicationEventPublisher eventPublisher,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry,
+                       @Value("${app.coalescing.batch-window}") Duration batchWindow,
+                       @Value("${app.coalescing.max-batch-size}") int maxBatchSize) {
+        this.userRepository = userRepository;
+        this.productRepository = productRepository;
+        this.userSavedProductsRepository = userSavedProductsRepository;
+        this.passwordHashingService = passwordHashingService;
+        this.savedProductsIndex = savedProductsIndex;
+        this.savedProductCounters = savedProductCounters;
+        this.savedProductsWriteBehind = savedProductsWriteBehind;
+        this.eventPublisher = eventPublisher;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.profileFlights = new SingleFlight<>("users", meterRegistry);
+        this.profileBatches = new BatchLoader<>("users", batchWindow, maxBatchSize, this::loadProfiles, meterRegistry);
     }
 
-    @Transactional
-    public User registerUser(User user) {
+    // Requests pinned to the primary load on their own thread; the rest share in-flight and batched loads
+    public Optional<UserProfile> getUserById(Long id) {
+        if (ReadYourWrites.isRequestPinned()) {
+            return Optional.ofNullable(loadProfiles(List.of(id)).get(id));
+        }
+        return Optional.ofNullable(profileFlights.execute(id, () -> profileBatches.get(id)));
+    }
+
+    public UserProfile registerUser(User user) {
         log.info("Registering new user: {}", user.getEmail());
 
         if (userRepository.existsByEmail(user.getEmail())) {
-            throw new RuntimeException("Email already exists");
+            throw new IllegalArgumentException("Email already exists");
         }
 
         if (userRepository.existsByUsername(user.getUsername())) {
-            throw new RuntimeException("Username already exists");
+            throw new IllegalArgumentException("Username already exists");
         }
 
-        user.setPassword(passwordEncoder.encode(user.getPassword()));
+        user.setPassword(passwordHashingService.encode(user.getPassword()));
 
-        return userRepository.save(user);
+        return UserProfile.withoutSavedProducts(userRepository.save(user));
     }
 
-    @Transactional(readOnly = true)
-    public Optional<User> login(String email, String password) {
-        return userRepository.findByEmail(email)
-                .filter(user -> passwordEncoder.matches(password, user.getPassword()));
+    public Optional<UserProfile> login(String email, String password) {
+        Optional<User> found = userRepository.findByEmail(email);
+        if (found.isEmpty() || !passwordHashingService.matches(password, found.get().getPassword())) {
+            return Optional.empty();
+        }
+
+        User user = found.get();
+        if (passwordHashingService.needsRehash(user.getPassword())) {
+            userRepository.updatePassword(user.getId(), passwordHashingService.encode(password));
+            log.debug("Rehashed password for user {}", user.getId());
+        }
+
+        return Optional.of(UserProfile.of(user, findSavedProductIds(user.getId())));
     }
 
-    @Transactional
-    public User saveProduct(Long userId, Long productId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    // The toggles run their transactions from templates so the write-behind paths can consult the
+    // saved-products index first: a cache miss there loads on a loader thread with a connection of its own,
+    // and holding one here while waiting for it can exhaust the pool.
+    public UserProfile saveProduct(Long userId, Long productId) {
+        if (savedProductsWriteBehind.isEnabled()) {
+            return toggleWriteBehind(userId, productId, true);
+        }
 
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new RuntimeException("Product not found"));
+        return transaction.execute(status -> {
+            if (userSavedProductsRepository.insertIfAbsent(userId, productId) > 0) {
+                eventPublisher.publishEvent(new SavedProductChangedEvent(userId, productId, true));
+            }
 
-        boolean alreadySaved = userSavedProductsRepository.existsByUserIdAndProductId(userId, productId);
+            return loadProfile(userId);
+        });
+    }
 
-        if (alreadySaved) {
-            return user;
+    public UserProfile removeSavedProduct(Long userId, Long productId) {
+        if (savedProductsWriteBehind.isEnabled()) {
+            return toggleWriteBehind(userId, productId, false);
         }
 
-        UserSavedProducts userSavedProducts = UserSavedProducts.builder()
-                .user(user)
-                .product(product)
-                .savedAt(LocalDateTime.now())
-                .build();
-
-        userSavedProductsRepository.save(userSavedProducts);
+        return transaction.execute(status -> {
+            if (userSavedProductsRepository.deleteIfPresent(userId, productId) == 0) {
+                throw new IllegalArgumentException("User does not have this product saved");
+            }
+            eventPublisher.publishEvent(new SavedProductChangedEvent(userId, productId, false));
 
-        return user;
+            return loadProfile(userId);
+        });
     }
 
-    @Transactional
-    public User removeSavedProduct(Long userId, Long productId) {
-        if (!userSavedProductsRepository.existsByUserIdAndProductId(userId, productId)) {
-            throw new RuntimeException("User does not have this product saved");
+    public SavedProductsBatchResult applySavedProductOperations(Long userId, List<SavedProductOperation> operations) {
+        Map<Long, Boolean> finalState = new LinkedHashMap<>();
+        operations.forEach(operation -> finalState.put(operation.getProductId(), operation.getSaved()));
+
+        long[] toSave = finalState.entrySet().stream()
+                .filter(Map.Entry::getValue)
+                .mapToLong(Map.Entry::getKey)
+                .toArray();
+        long[] toRemove = finalState.entrySet().stream()
+                .filter(entry -> !entry.getValue())
+                .mapToLong(Map.Entry::getKey)
+                .toArray();
+
+        if (savedProductsWriteBehind.isEnabled()) {
+            return applyWriteBehind(userId, toSave, toRemove);
         }
 
-        userSavedProductsRepository.deleteByUserIdAndProductId(userId, productId);
+        return transaction.execute(status -> {
+            SavedProductsBatchResult result = userSavedProductsRepository.applyBatch(userId, toSave, toRemove);
+
+            for (long productId : result.getAddedProductIds()) {
+                eventPublisher.publishEvent(new SavedProductChangedEvent(userId, productId, true));
+            }
+            for (long productId : result.getRemovedProductIds()) {
+                eventPublisher.publishEvent(new SavedProductChangedEvent(userId, productId, false));
+            }
 
-        return userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+            return result;
+        });
     }
 
-    @Transactional(readOnly = true)
     public boolean isUserSavedProduct(Long userId, Long productId) {
-        return userSavedProductsRepository.existsByUserIdAndProductId(userId, productId);
+        return savedProductsIndex.isSaved(userId, productId);
+    }
+
+    public List<Long> filterSavedProducts(Long userId, List<Long> productIds) {
+        return savedProductsIndex.filterSaved(userId, productIds);
     }
 
     @Transactional(readOnly = true)
@@ -105,7 +203,135 @@ public class UserService {
     }
 
     @Transactional(readOnly = true)
+    public SavedProductsFeed getSavedProductsFeed(Long userId, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_FEED_PAGE_SIZE));
+        SavedProductsCursor after = SavedProductsCursor.decode(cursor);
+
+        List<SavedProductEntry> entries = after == null
+                ? userSavedProductsRepository.findFeedStart(userId, pageSize + 1)
+                : userSavedProductsRepository.findFeedAfter(userId, after.getSavedAt(), after.getProductId(),
+                        pageSize + 1);
+
+        boolean hasMore = entries.size() > pageSize;
+        if (hasMore) {
+            entries = entries.subList(0, pageSize);
+        }
+
+        Map<Long, Product> products = productRepository.findAllById(
+                        entries.stream().map(SavedProductEntry::getProductId).toList()).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        List<SavedProductsFeed.Item> items = entries.stream()
+                .filter(entry -> products.containsKey(entry.getProductId()))
+                .map(entry -> new SavedProductsFeed.Item(products.get(entry.getProductId()), entry.getSavedAt()))
+                .toList();
+
+        String nextCursor = null;
+        if (hasMore) {
+            SavedProductEntry last = entries.get(pageSize - 1);
+            nextCursor = new SavedProductsCursor(last.getSavedAt(), last.getProductId()).encode();
+        }
+        return new SavedProductsFeed(items, nextCursor);
+    }
+
     public Integer countSavedProducts(Long userId) {
-        return userSavedProductsRepository.findByUserId(userId).size();
+        long stored = userRepository.findSavedProductsCountById(userId).orElse(0L);
+        return Math.toIntExact(stored + savedProductCounters.getPendingUserDelta(userId));
+    }
+
+    // Same outcomes as the synchronous paths, but the row change is journaled and written later
+    private UserProfile toggleWriteBehind(Long userId, Long productId, boolean saved) {
+        boolean stored = savedProductsIndex.isSaved(userId, productId);
+
+        return transaction.execute(status -> {
+            UserSummary user = userRepository.findSummaryById(userId)
+                    .orElseThrow(() -> new DataIntegrityViolationException("User not found"));
+            if (saved && !productRepository.existsById(productId)) {
+                throw new DataIntegrityViolationException("Product not found");
+            }
+
+            if (savedProductsWriteBehind.toggle(userId, productId, saved, stored)) {
+                eventPublisher.publishEvent(new SavedProductChangedEvent(userId, productId, saved));
+            } else if (!saved) {
+                throw new IllegalArgumentException("User does not have this product saved");
+            }
+
+            return UserProfile.of(user, findSavedProductIds(userId));
+        });
+    }
+
+    private SavedProductsBatchResult applyWriteBehind(Long userId, long[] toSave, long[] toRemove) {
+        Set<Long> stored = new HashSet<>(savedProductsIndex.filterSaved(userId,
+                LongStream.concat(Arrays.stream(toSave), Arrays.stream(toRemove)).boxed().toList()));
+
+        return transaction.execute(status -> applyWriteBehind(userId, toSave, toRemove, stored));
+    }
+
+    private SavedProductsBatchResult applyWriteBehind(Long userId, long[] toSave, long[] toRemove, Set<Long> stored) {
+        if (!userRepository.existsById(userId)) {
+            throw new DataIntegrityViolationException("User not found");
+        }
+
+        // unknown products are skipped, as the synchronous batch does
+        Set<Long> existing = toSave.length == 0 ? Set.of() : new HashSet<>(productRepository.findExistingIds(
+                Arrays.stream(toSave).boxed().toList()));
+        long[] added = Arrays.stream(toSave)
+                .filter(existing::contains)
+                .filter(productId -> savedProductsWriteBehind.toggle(userId, productId, true,
+                        stored.contains(productId)))
+                .toArray();
+        long[] removed = Arrays.stream(toRemove)
+                .filter(productId -> savedProductsWriteBehind.toggle(userId, productId, false,
+                        stored.contains(productId)))
+                .toArray();
+
+        for (long productId : added) {
+            eventPublisher.publishEvent(new SavedProductChangedEvent(userId, productId, true));
+        }
+        for (long productId : removed) {
+            eventPublisher.publishEvent(new SavedProductChangedEvent(userId, productId, false));
+        }
+
+        // the events above reach the counters only after this transaction commits
+        long count = countSavedProducts(userId) + added.length - removed.length;
+        return new SavedProductsBatchResult(added, removed, count);
+    }
+
+    // a profile load already in flight may have read the saved products before this change
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSavedProductChanged(SavedProductChangedEvent event) {
+        profileFlights.forget(event.getUserId());
+    }
+
+    private Map<Long, UserProfile> loadProfiles(Collection<Long> userIds) {
+        return readOnlyTransaction.execute(status -> {
+            List<UserSummary> users = userRepository.findSummariesByIdIn(userIds);
+            if (users.isEmpty()) {
+                return Map.of();
+            }
+
+            Map<Long, long[]> savedProductIds = savedProductsWriteBehind.savedProductIds(userIds, () ->
+                    userSavedProductsRepository.findProductIdsByUserIdIn(userIds).stream()
+                            .collect(Collectors.groupingBy(SavedProductRow::getUserId, Collectors.collectingAndThen(
+                                    Collectors.toList(),
+                                    rows -> rows.stream().mapToLong(SavedProductRow::getProductId).toArray()))));
+
+            return users.stream().collect(Collectors.toMap(UserSummary::getId, user ->
+                    UserProfile.of(user, savedProductIds.getOrDefault(user.getId(), new long[0]))));
+        });
+    }
+
+    private UserProfile loadProfile(Long userId) {
+        UserSummary user = userRepository.findSummaryById(userId)
+                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+
+        return UserProfile.of(user, findSavedProductIds(userId));
+    }
+
+    private long[] findSavedProductIds(Long userId) {
+        return savedProductsWriteBehind.savedProductIds(userId, () ->
+                userSavedProductsRepository.findProductIdsByUserId(userId).stream()
+                        .mapToLong(Long::longValue)
+                        .toArray());
     }
 }
\ No newline at end of file
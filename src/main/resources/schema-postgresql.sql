@@ -0,0 +1,51 @@
+-- Runs after Hibernate's schema update (spring.jpa.defer-datasource-initialization=true).
+-- Every statement must be idempotent.
+
+-- Backs the cold-index fallback in ProductRepository.fullTextSearch; the expression must match SEARCH_VECTOR.
+CREATE INDEX IF NOT EXISTS idx_products_search ON products USING GIN ((
+    setweight(to_tsvector('simple', coalesce(name, '')), 'A') ||
+    setweight(to_tsvector('simple', coalesce(category, '')), 'B') ||
+    setweight(to_tsvector('simple', coalesce(description, '')), 'C')
+));
+
+-- Ids moved from IDENTITY to pooled sequences (allocationSize = 50) so inserts can be batched.
+-- Hibernate creates products_seq/users_seq; these statements migrate tables created under IDENTITY
+-- and keep the sequence ahead of existing ids. Rows inserted outside the app draw from the same sequence.
+CREATE SEQUENCE IF NOT EXISTS products_seq START WITH 1 INCREMENT BY 50;
+ALTER TABLE products ALTER COLUMN id DROP IDENTITY IF EXISTS;
+SELECT setval('products_seq', GREATEST((SELECT COALESCE(MAX(id), 1) FROM products), (SELECT last_value FROM products_seq)));
+ALTER TABLE products ALTER COLUMN id SET DEFAULT nextval('products_seq');
+
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY IF EXISTS;
+SELECT setval('users_seq', GREATEST((SELECT COALESCE(MAX(id), 1) FROM users), (SELECT last_value FROM users_seq)));
+ALTER TABLE users ALTER COLUMN id SET DEFAULT nextval('users_seq');
+
+-- Denormalized save counters, flushed from memory by SavedProductCounters. New rows start at 0;
+-- rows that existed before the columns were added are backfilled once. Drift after that (deltas lost
+-- in a crash) is repaired by SavedProductCounters.reconcile, not here.
+ALTER TABLE products ALTER COLUMN saved_count SET DEFAULT 0;
+UPDATE products p SET saved_count = COALESCE(s.saves, 0)
+FROM products p2
+LEFT JOIN (SELECT product_id, count(*) AS saves FROM user_saved_products GROUP BY product_id) s ON s.product_id = p2.id
+WHERE p.id = p2.id AND p.saved_count IS NULL;
+
+ALTER TABLE users ALTER COLUMN saved_products_count SET DEFAULT 0;
+UPDATE users u SET saved_products_count = COALESCE(s.saves, 0)
+FROM users u2
+LEFT JOIN (SELECT user_id, count(*) AS saves FROM user_saved_products GROUP BY user_id) s ON s.user_id = u2.id
+WHERE u.id = u2.id AND u.saved_products_count IS NULL;
+
+-- The saved-products feed pages by (saved_at, product_id); rows from before saved_at was populated
+-- would otherwise sort as NULL and drop out of keyset comparisons.
+UPDATE user_saved_products SET saved_at = now() WHERE saved_at IS NULL;
+ALTER TABLE user_saved_products ALTER COLUMN saved_at SET DEFAULT now();
+ALTER TABLE user_saved_products ALTER COLUMN saved_at SET NOT NULL;
+
+-- Refresh token revocations, kept until the token would have expired anyway (TokenBlocklist).
+-- The primary key is the single-use gate for /token/refresh across restarts and instances.
+CREATE TABLE IF NOT EXISTS revoked_tokens (
+    token_id   varchar(32) PRIMARY KEY,
+    expires_at timestamp with time zone NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_revoked_tokens_expires_at ON revoked_tokens (expires_at);
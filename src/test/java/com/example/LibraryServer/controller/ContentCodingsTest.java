@@ -0,0 +1,50 @@
+package com.example.LibraryServer.controller;
+
+import org.junit.jupiter.api.Test;
+
+import static com.example.LibraryServer.controller.ContentCodings.GZIP;
+import static com.example.LibraryServer.controller.ContentCodings.IDENTITY;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContentCodingsTest {
+
+    @Test
+    void servesGzipWhenItIsAccepted() {
+        assertThat(ContentCodings.negotiate("gzip")).isEqualTo(GZIP);
+        assertThat(ContentCodings.negotiate("gzip, deflate, br")).isEqualTo(GZIP);
+        assertThat(ContentCodings.negotiate("br;q=1.0, GZIP;q=0.8")).isEqualTo(GZIP);
+        assertThat(ContentCodings.negotiate("x-gzip")).isEqualTo(GZIP);
+        assertThat(ContentCodings.negotiate("*")).isEqualTo(GZIP);
+    }
+
+    @Test
+    void servesIdentityWhenGzipIsNotAccepted() {
+        assertThat(ContentCodings.negotiate(null)).isEqualTo(IDENTITY);
+        assertThat(ContentCodings.negotiate("")).isEqualTo(IDENTITY);
+        assertThat(ContentCodings.negotiate("br, deflate")).isEqualTo(IDENTITY);
+        assertThat(ContentCodings.negotiate("gzip;q=0")).isEqualTo(IDENTITY);
+        assertThat(ContentCodings.negotiate("gzip;q=0.000, *")).isEqualTo(IDENTITY);
+        assertThat(ContentCodings.negotiate("*;q=0.5, gzip;q=0")).isEqualTo(IDENTITY);
+        assertThat(ContentCodings.negotiate("gzip;q=nope")).isEqualTo(IDENTITY);
+    }
+
+    @Test
+    void prefersTheHigherQuality() {
+        assertThat(ContentCodings.negotiate("gzip;q=0.5, identity")).isEqualTo(IDENTITY);
+        assertThat(ContentCodings.negotiate("gzip;q=0.5, identity;q=0.5")).isEqualTo(GZIP);
+        assertThat(ContentCodings.negotiate("gzip, identity;q=0.1")).isEqualTo(GZIP);
+    }
+
+    @Test
+    void refusesWhenNeitherEncodingIsAccepted() {
+        assertThat(ContentCodings.negotiate("identity;q=0")).isNull();
+        assertThat(ContentCodings.negotiate("br, *;q=0")).isNull();
+        assertThat(ContentCodings.negotiate("gzip;q=0, identity;q=0")).isNull();
+    }
+
+    @Test
+    void identityOnlyIsExcludedWhenTheWildcardIsRefused() {
+        assertThat(ContentCodings.negotiate("gzip, *;q=0")).isEqualTo(GZIP);
+        assertThat(ContentCodings.negotiate("identity, *;q=0")).isEqualTo(IDENTITY);
+    }
+}
\ No newline at end of file
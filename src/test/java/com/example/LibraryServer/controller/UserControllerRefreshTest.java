@@ -0,0 +1,149 @@
+package com.example.LibraryServer.controller;
+
+import com.example.LibraryServer.dto.RefreshTokenRequest;
+import com.example.LibraryServer.dto.TokenDTO;
+import com.example.LibraryServer.repository.RevokedTokenRepository;
+import com.example.LibraryServer.security.IssuedTokens;
+import com.example.LibraryServer.security.TokenBlocklist;
+import com.example.LibraryServer.security.TokenService;
+import com.example.LibraryServer.security.TokenType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserControllerRefreshTest {
+
+    private final TokenService tokenService = new TokenService("", Duration.ofMinutes(15), Duration.ofDays(14));
+    private final InMemoryRevokedTokens revokedTokens = new InMemoryRevokedTokens();
+    private final TokenBlocklist blocklist = new TokenBlocklist(revokedTokens, new SimpleMeterRegistry(), 1000);
+    private final UserController controller = new UserController(null, tokenService, blocklist);
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void exchangesARefreshTokenForANewPair() {
+        IssuedTokens issued = tokenService.issue(7);
+
+        ResponseEntity<?> response = controller.refreshToken(request(issued.getRefreshToken()));
+
+        assertThat(response.getStatusCode().value()).isEqualTo(200);
+        TokenDTO tokens = (TokenDTO) response.getBody();
+        assertThat(tokenService.verify(tokens.getAccessToken(), TokenType.ACCESS))
+                .hasValueSatisfying(claims -> assertThat(claims.userId()).isEqualTo(7));
+        assertThat(tokenService.verify(tokens.getRefreshToken(), TokenType.REFRESH))
+                .hasValueSatisfying(claims -> assertThat(claims.userId()).isEqualTo(7));
+    }
+
+    @Test
+    void acceptsARefreshTokenOnlyOnce() {
+        String refreshToken = tokenService.issue(7).getRefreshToken();
+
+        assertThat(controller.refreshToken(request(refreshToken)).getStatusCode().value()).isEqualTo(200);
+        assertThat(controller.refreshToken(request(refreshToken)).getStatusCode().value()).isEqualTo(401);
+    }
+
+    @Test
+    void acceptsARefreshTokenOnceUnderConcurrentReplays() throws Exception {
+        for (int round = 0; round < 50; round++) {
+            String refreshToken = tokenService.issue(7).getRefreshToken();
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return controller.refreshToken(request(refreshToken)).getStatusCode().value();
+                }));
+            }
+            start.countDown();
+
+            List<Integer> statuses = new ArrayList<>();
+            for (Future<Integer> result : results) {
+                statuses.add(result.get());
+            }
+            assertThat(statuses).containsOnlyOnce(200).containsOnly(200, 401);
+        }
+    }
+
+    @Test
+    void rejectsARefreshTokenRevokedAtLogout() {
+        String refreshToken = tokenService.issue(7).getRefreshToken();
+        blocklist.revoke(tokenService.verify(refreshToken, TokenType.REFRESH).orElseThrow());
+
+        assertThat(controller.refreshToken(request(refreshToken)).getStatusCode().value()).isEqualTo(401);
+    }
+
+    @Test
+    void keepsRefreshRevocationsOutOfTheBoundedMemoryBlocklist() {
+        TokenBlocklist tiny = new TokenBlocklist(revokedTokens, new SimpleMeterRegistry(), 1);
+        List<String> refreshTokens = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            String refreshToken = tokenService.issue(i).getRefreshToken();
+            refreshTokens.add(refreshToken);
+            tiny.revoke(tokenService.verify(refreshToken, TokenType.REFRESH).orElseThrow());
+        }
+
+        // a restarted instance sees the same store
+        TokenBlocklist restarted = new TokenBlocklist(revokedTokens, new SimpleMeterRegistry(), 1);
+        for (String refreshToken : refreshTokens) {
+            assertThat(restarted.isRevoked(tokenService.verify(refreshToken, TokenType.REFRESH).orElseThrow()))
+                    .isTrue();
+        }
+    }
+
+    @Test
+    void rejectsAnAccessTokenAsRefreshToken() {
+        String accessToken = tokenService.issue(7).getAccessToken();
+
+        assertThat(controller.refreshToken(request(accessToken)).getStatusCode().value()).isEqualTo(401);
+    }
+
+    private static RefreshTokenRequest request(String refreshToken) {
+        RefreshTokenRequest request = new RefreshTokenRequest();
+        request.setRefreshToken(refreshToken);
+        return request;
+    }
+
+    // stands in for the revoked_tokens table, whose primary key makes the insert a put-if-absent
+    private static class InMemoryRevokedTokens extends RevokedTokenRepository {
+
+        private final Map<String, Instant> rows = new ConcurrentHashMap<>();
+
+        InMemoryRevokedTokens() {
+            super(null);
+        }
+
+        @Override
+        public boolean revoke(String tokenId, Instant expiresAt) {
+            return rows.putIfAbsent(tokenId, expiresAt) == null;
+        }
+
+        @Override
+        public boolean isRevoked(String tokenId) {
+            return rows.containsKey(tokenId);
+        }
+
+        @Override
+        public int deleteExpired(Instant now) {
+            int before = rows.size();
+            rows.values().removeIf(expiresAt -> !expiresAt.isAfter(now));
+            return before - rows.size();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,125 @@
+package com.example.LibraryServer.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SavedProductsJournalTest {
+
+    private static final int RECORD = SavedProductsJournal.RECORD_SIZE;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replaysRecordsInOrderAfterReopen() throws IOException {
+        try (SavedProductsJournal journal = SavedProductsJournal.open(directory, 16 * RECORD, entry -> { })) {
+            journal.append(1, 10, true, 100);
+            journal.append(1, 11, true, 200);
+            journal.append(2, 10, false, 300);
+        }
+
+        List<SavedProductsJournal.Entry> replayed = new ArrayList<>();
+        try (SavedProductsJournal journal = SavedProductsJournal.open(directory, 16 * RECORD, replayed::add)) {
+            assertThat(journal.lastSequence()).isEqualTo(3);
+        }
+
+        assertThat(replayed).containsExactly(
+                new SavedProductsJournal.Entry(1, 1, 10, true, 100),
+                new SavedProductsJournal.Entry(2, 1, 11, true, 200),
+                new SavedProductsJournal.Entry(3, 2, 10, false, 300));
+    }
+
+    @Test
+    void rollsToNewSegmentWhenFull() throws IOException {
+        try (SavedProductsJournal journal = SavedProductsJournal.open(directory, 2 * RECORD, entry -> { })) {
+            for (int i = 1; i <= 5; i++) {
+                journal.append(1, i, true, i);
+            }
+        }
+
+        assertThat(segments()).containsExactly(
+                "00000000000000000001.journal",
+                "00000000000000000003.journal",
+                "00000000000000000005.journal");
+
+        List<Long> replayed = new ArrayList<>();
+        SavedProductsJournal.open(directory, 2 * RECORD, entry -> replayed.add(entry.sequence())).close();
+        assertThat(replayed).containsExactly(1L, 2L, 3L, 4L, 5L);
+    }
+
+    @Test
+    void stopsReplayAtTornRecord() throws IOException {
+        try (SavedProductsJournal journal = SavedProductsJournal.open(directory, 16 * RECORD, entry -> { })) {
+            journal.append(1, 10, true, 100);
+            journal.append(1, 11, true, 200);
+            journal.append(1, 12, true, 300);
+        }
+
+        // flip a payload byte of the second record, as a write cut short by a crash would leave it
+        Path segment = directory.resolve("00000000000000000001.journal");
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) 0xFF}), RECORD + 12);
+        }
+
+        List<Long> replayed = new ArrayList<>();
+        try (SavedProductsJournal journal = SavedProductsJournal.open(directory, 16 * RECORD,
+                entry -> replayed.add(entry.sequence()))) {
+            assertThat(replayed).containsExactly(1L);
+            assertThat(journal.append(1, 13, true, 400)).isEqualTo(2);
+        }
+
+        List<SavedProductsJournal.Entry> afterRepair = new ArrayList<>();
+        SavedProductsJournal.open(directory, 16 * RECORD, afterRepair::add).close();
+        assertThat(afterRepair).extracting(SavedProductsJournal.Entry::productId).containsExactly(10L, 13L);
+    }
+
+    @Test
+    void checkpointDeletesCoveredSegmentsAndSkipsTheirRecords() throws IOException {
+        try (SavedProductsJournal journal = SavedProductsJournal.open(directory, 2 * RECORD, entry -> { })) {
+            for (int i = 1; i <= 5; i++) {
+                journal.append(1, i, true, i);
+            }
+
+            journal.checkpoint(3);
+            assertThat(segments()).containsExactly(
+                    "00000000000000000003.journal",
+                    "00000000000000000005.journal");
+        }
+
+        List<Long> replayed = new ArrayList<>();
+        try (SavedProductsJournal journal = SavedProductsJournal.open(directory, 2 * RECORD,
+                entry -> replayed.add(entry.sequence()))) {
+            assertThat(journal.lastSequence()).isEqualTo(5);
+            journal.checkpoint(5);
+        }
+        assertThat(replayed).containsExactly(4L, 5L);
+
+        List<Long> afterFullCheckpoint = new ArrayList<>();
+        try (SavedProductsJournal journal = SavedProductsJournal.open(directory, 2 * RECORD,
+                entry -> afterFullCheckpoint.add(entry.sequence()))) {
+            assertThat(journal.lastSequence()).isEqualTo(5);
+            assertThat(journal.append(1, 6, true, 6)).isEqualTo(6);
+        }
+        assertThat(afterFullCheckpoint).isEmpty();
+    }
+
+    private List<String> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(".journal"))
+                    .sorted()
+                    .toList();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,162 @@
+package com.example.LibraryServer.journal;
+
+import com.example.LibraryServer.repository.SavedToggleRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class SavedProductsWriteBehindTest {
+
+    private static final TransactionTemplate DIRECT = new TransactionTemplate() {
+        @Override
+        public <T> T execute(TransactionCallback<T> action) {
+            return action.doInTransaction(new SimpleTransactionStatus());
+        }
+    };
+
+    @TempDir
+    Path directory;
+
+    private final List<SavedProductsWriteBehind> opened = new ArrayList<>();
+
+    @AfterEach
+    void closeAll() throws IOException {
+        for (SavedProductsWriteBehind writeBehind : opened) {
+            writeBehind.close();
+        }
+    }
+
+    @Test
+    void writesOnlyTheLastStateOfAPair() throws IOException {
+        RecordingRepository repository = new RecordingRepository();
+        SavedProductsWriteBehind writeBehind = open(repository);
+
+        assertThat(writeBehind.toggle(1, 10, true, false)).isTrue();
+        assertThat(writeBehind.toggle(1, 10, false, false)).isTrue();
+        assertThat(writeBehind.toggle(1, 10, true, false)).isTrue();
+        writeBehind.flush();
+
+        assertThat(repository.batches).containsExactly(List.of(toggle(1, 10, true)));
+    }
+
+    @Test
+    void writesAToggleBackToTheCallersStoredState() throws IOException {
+        RecordingRepository repository = new RecordingRepository();
+        SavedProductsWriteBehind writeBehind = open(repository);
+
+        // the caller believes the pair is stored as unsaved; the database may say otherwise
+        writeBehind.toggle(1, 10, true, false);
+        writeBehind.toggle(1, 10, false, false);
+        writeBehind.flush();
+
+        assertThat(repository.batches).containsExactly(List.of(toggle(1, 10, false)));
+    }
+
+    @Test
+    void writesTogglesThatLookLikeNoOps() throws IOException {
+        RecordingRepository repository = new RecordingRepository();
+        SavedProductsWriteBehind writeBehind = open(repository);
+
+        assertThat(writeBehind.toggle(1, 10, true, true)).isFalse();
+        writeBehind.flush();
+
+        assertThat(repository.batches).containsExactly(List.of(toggle(1, 10, true)));
+    }
+
+    @Test
+    void keepsAToggleMadeWhileAFlushIsWriting() throws IOException {
+        RecordingRepository repository = new RecordingRepository();
+        SavedProductsWriteBehind writeBehind = open(repository);
+        repository.during = batch -> {
+            if (repository.batches.isEmpty()) {
+                writeBehind.toggle(1, 10, false, true);
+            }
+        };
+
+        writeBehind.toggle(1, 10, true, false);
+        writeBehind.flush();
+        writeBehind.flush();
+
+        assertThat(repository.batches).containsExactly(
+                List.of(toggle(1, 10, true)),
+                List.of(toggle(1, 10, false)));
+        assertThat(writeBehind.savedProductIds(1, () -> new long[]{10})).isEmpty();
+    }
+
+    @Test
+    void replaysTogglesThatWereNeverWritten() throws IOException {
+        RecordingRepository failing = new RecordingRepository();
+        failing.during = batch -> {
+            throw new DataAccessResourceFailureException("database unavailable");
+        };
+        SavedProductsWriteBehind crashed = open(failing);
+        crashed.toggle(1, 10, true, false);
+        crashed.toggle(2, 20, false, true);
+        crashed.close();
+        opened.remove(crashed);
+
+        RecordingRepository repository = new RecordingRepository();
+        SavedProductsWriteBehind restarted = open(repository);
+        assertThat(restarted.savedProductIds(1, () -> new long[0])).containsExactly(10L);
+        restarted.flush();
+
+        assertThat(repository.batches).hasSize(1);
+        assertThat(repository.batches.get(0)).extracting(SavedToggleRepository.Toggle::userId,
+                        SavedToggleRepository.Toggle::productId, SavedToggleRepository.Toggle::saved)
+                .containsExactlyInAnyOrder(
+                        tuple(1L, 10L, true),
+                        tuple(2L, 20L, false));
+
+        restarted.close();
+        opened.remove(restarted);
+        RecordingRepository afterCheckpoint = new RecordingRepository();
+        open(afterCheckpoint).flush();
+        assertThat(afterCheckpoint.batches).isEmpty();
+    }
+
+    private SavedProductsWriteBehind open(SavedToggleRepository repository) throws IOException {
+        SavedProductsWriteBehind writeBehind = new SavedProductsWriteBehind(repository, DIRECT,
+                new SimpleMeterRegistry(), true, directory, DataSize.ofKilobytes(4), Duration.ofMillis(1), true);
+        writeBehind.open();
+        opened.add(writeBehind);
+        return writeBehind;
+    }
+
+    // savedAt is the toggle time and is not compared
+    private static SavedToggleRepository.Toggle toggle(long userId, long productId, boolean saved) {
+        return new SavedToggleRepository.Toggle(userId, productId, saved, null);
+    }
+
+    private static final class RecordingRepository extends SavedToggleRepository {
+
+        private final List<List<Toggle>> batches = new ArrayList<>();
+        private Consumer<List<Toggle>> during = batch -> { };
+
+        RecordingRepository() {
+            super(null);
+        }
+
+        @Override
+        public void apply(List<Toggle> toggles) {
+            during.accept(toggles);
+            batches.add(toggles.stream()
+                    .map(toggle -> new Toggle(toggle.userId(), toggle.productId(), toggle.saved(), null))
+                    .toList());
+        }
+    }
+}
\ No newline at end of file
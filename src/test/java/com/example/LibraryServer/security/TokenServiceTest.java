@@ -0,0 +1,83 @@
+package com.example.LibraryServer.security;
+
+import org.junit.jupiter.api.Test;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TokenServiceTest {
+
+    private static final String SECRET = Base64.getEncoder().encodeToString(new byte[32]);
+
+    private final TokenService tokenService = new TokenService(SECRET, Duration.ofMinutes(15), Duration.ofDays(14));
+
+    @Test
+    void verifiesTheTokensItIssued() {
+        Instant before = Instant.now();
+        IssuedTokens tokens = tokenService.issue(42);
+
+        TokenClaims access = tokenService.verify(tokens.getAccessToken(), TokenType.ACCESS).orElseThrow();
+        TokenClaims refresh = tokenService.verify(tokens.getRefreshToken(), TokenType.REFRESH).orElseThrow();
+
+        assertThat(access.userId()).isEqualTo(42);
+        assertThat(refresh.userId()).isEqualTo(42);
+        assertThat(access.tokenId()).isNotEqualTo(refresh.tokenId());
+        assertThat(access.expiresAt()).isAfter(before.plus(Duration.ofMinutes(14)));
+        assertThat(refresh.expiresAt()).isAfter(before.plus(Duration.ofDays(13)));
+    }
+
+    @Test
+    void rejectsATokenOfTheOtherType() {
+        IssuedTokens tokens = tokenService.issue(42);
+
+        assertThat(tokenService.verify(tokens.getAccessToken(), TokenType.REFRESH)).isEmpty();
+        assertThat(tokenService.verify(tokens.getRefreshToken(), TokenType.ACCESS)).isEmpty();
+    }
+
+    @Test
+    void rejectsAnAlteredPayload() {
+        String token = tokenService.issue(42).getAccessToken();
+        String[] parts = token.split("\\.");
+        String claims = new String(Base64.getUrlDecoder().decode(parts[0]), StandardCharsets.UTF_8);
+        String forged = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(claims.replaceFirst("^42:", "43:").getBytes(StandardCharsets.UTF_8));
+
+        assertThat(tokenService.verify(forged + "." + parts[1], TokenType.ACCESS)).isEmpty();
+    }
+
+    @Test
+    void rejectsATokenSignedWithAnotherKey() {
+        TokenService other = new TokenService("", Duration.ofMinutes(15), Duration.ofDays(14));
+
+        assertThat(tokenService.verify(other.issue(42).getAccessToken(), TokenType.ACCESS)).isEmpty();
+    }
+
+    @Test
+    void rejectsAnExpiredToken() {
+        TokenService expired = new TokenService(SECRET, Duration.ofSeconds(-1), Duration.ofSeconds(-1));
+        IssuedTokens tokens = expired.issue(42);
+
+        assertThat(tokenService.verify(tokens.getAccessToken(), TokenType.ACCESS)).isEmpty();
+        assertThat(tokenService.verify(tokens.getRefreshToken(), TokenType.REFRESH)).isEmpty();
+    }
+
+    @Test
+    void rejectsMalformedTokens() {
+        assertThat(tokenService.verify("", TokenType.ACCESS)).isEmpty();
+        assertThat(tokenService.verify("no-signature", TokenType.ACCESS)).isEmpty();
+        assertThat(tokenService.verify("a.b.c", TokenType.ACCESS)).isEmpty();
+        assertThat(tokenService.verify("!!!.???", TokenType.ACCESS)).isEmpty();
+    }
+
+    @Test
+    void refusesAShortSecret() {
+        String shortSecret = Base64.getEncoder().encodeToString(new byte[16]);
+
+        assertThatThrownBy(() -> new TokenService(shortSecret, Duration.ofMinutes(15), Duration.ofDays(14)))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
\ No newline at end of file